@@ -0,0 +1,43 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.wire.WireMappers;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+// Общие тестовые данные для бенчмарков
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static Film film(long i) {
+        return new Film(null, "Фильм " + i, "Описание фильма номер " + i,
+                LocalDate.of(1950, 1, 1).plusDays(i % 20_000), Duration.ofMinutes(60 + i % 120));
+    }
+
+    static User user(long i) {
+        return new User(null, "user" + i + "@mail.ru", "login" + i, "Пользователь " + i,
+                LocalDate.of(1970, 1, 1).plusDays(i % 15_000));
+    }
+
+    // Настройки как у ObjectMapper, который собирает Spring Boot
+    static ObjectMapper objectMapper() {
+        return builder().build();
+    }
+
+    static WireMappers wireMappers() {
+        return new WireMappers(builder());
+    }
+
+    private static Jackson2ObjectMapperBuilder builder() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS,
+                        SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS);
+    }
+}
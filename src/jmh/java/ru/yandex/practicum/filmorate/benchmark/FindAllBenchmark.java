@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.controller.NdjsonWriter;
+import ru.yandex.practicum.filmorate.storage.film.ColumnarFilmTable;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.ObjectFilmTable;
+import ru.yandex.practicum.filmorate.storage.journal.NoopJournal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+// Полная выдача GET /films: целиком, постранично и потоком NDJSON, для обоих представлений фильмов
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FindAllBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int size;
+
+    @Param({"objects", "columnar"})
+    private String layout;
+
+    private InMemoryFilmStorage storage;
+    private ObjectMapper objectMapper;
+    private NdjsonWriter ndjsonWriter;
+
+    @Setup
+    public void setUp() {
+        storage = new InMemoryFilmStorage(new NoopJournal(),
+                "columnar".equals(layout) ? new ColumnarFilmTable() : new ObjectFilmTable());
+        for (int i = 0; i < size; i++) {
+            storage.create(BenchmarkData.film(i));
+        }
+        objectMapper = BenchmarkData.objectMapper();
+        ndjsonWriter = new NdjsonWriter(objectMapper);
+    }
+
+    @Benchmark
+    public void findAllAsArray() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), storage.findAll());
+    }
+
+    @Benchmark
+    public void findFirstPage() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), storage.findPage(0, 100));
+    }
+
+    @Benchmark
+    public void streamAll() throws IOException {
+        ndjsonWriter.write(storage.findAfter(0), Long.MAX_VALUE).writeTo(OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,67 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.ColumnarFilmTable;
+import ru.yandex.practicum.filmorate.storage.film.FilmTable;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.ObjectFilmTable;
+import ru.yandex.practicum.filmorate.storage.journal.NoopJournal;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Сколько кучи занимают фильмы в режимах objects и columnar: только записи (FilmTable)
+// и хранилище целиком, вместе с индексами поиска, версий и рейтинга.
+// Запуск: mvn -Pbenchmarks verify, или отдельно с аргументом - числом фильмов (по умолчанию 1 000 000)
+public final class FootprintReport {
+    private static final int BATCH = 10_000;
+
+    private FootprintReport() {
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        System.out.printf("Фильмов: %,d%n", count);
+        System.out.printf("%-10s %18s %18s%n", "режим", "записи, байт/фильм", "хранилище, байт/фильм");
+        report("objects", ObjectFilmTable::new, count);
+        report("columnar", ColumnarFilmTable::new, count);
+    }
+
+    private static void report(String layout, Supplier<FilmTable> tables, int count) {
+        long before = usedHeap();
+        FilmTable table = tables.get();
+        for (int i = 1; i <= count; i++) {
+            Film film = BenchmarkData.film(i);
+            film.setId((long) i);
+            film.setVersion((long) i);
+            table.put(film);
+        }
+        long tableBytes = usedHeap() - before;
+        Reference.reachabilityFence(table);
+        table = null;
+
+        before = usedHeap();
+        InMemoryFilmStorage storage = new InMemoryFilmStorage(new NoopJournal(), tables.get());
+        List<Film> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < count; i++) {
+            batch.add(BenchmarkData.film(i));
+            if (batch.size() == BATCH || i == count - 1) {
+                storage.createAll(batch);
+                batch.clear();
+            }
+        }
+        long storageBytes = usedHeap() - before;
+        Reference.reachabilityFence(storage);
+        System.out.printf("%-10s %18d %18d%n", layout, tableBytes / count, storageBytes / count);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
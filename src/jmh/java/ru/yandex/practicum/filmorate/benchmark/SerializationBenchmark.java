@@ -0,0 +1,52 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Сериализация одного фильма в JSON и обратно
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private Film film;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        writer = BenchmarkData.objectMapper().writerFor(Film.class);
+        reader = BenchmarkData.objectMapper().readerFor(Film.class);
+        film = BenchmarkData.film(1);
+        film.setId(1L);
+        json = writer.writeValueAsBytes(film);
+    }
+
+    @Benchmark
+    public byte[] writeFilm() throws IOException {
+        return writer.writeValueAsBytes(film);
+    }
+
+    @Benchmark
+    public Film readFilm() throws IOException {
+        return reader.readValue(json);
+    }
+}
@@ -0,0 +1,80 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Запись в хранилища; число потоков задаётся флагом -t
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageBenchmark {
+
+    @Param({"10000"})
+    private int size;
+
+    private InMemoryFilmStorage filmStorage;
+    private InMemoryUserStorage userStorage;
+    private Film film;
+    // почта и логин уникальны, поэтому каждый создаваемый пользователь получает свой номер
+    private final AtomicLong nextUser = new AtomicLong();
+
+    // Хранилища пересоздаются на каждую итерацию, чтобы create не раздувал их бесконечно
+    @Setup(Level.Iteration)
+    public void setUp() {
+        filmStorage = new InMemoryFilmStorage();
+        userStorage = new InMemoryUserStorage();
+        for (int i = 0; i < size; i++) {
+            filmStorage.create(BenchmarkData.film(i));
+            userStorage.create(BenchmarkData.user(i));
+        }
+        film = BenchmarkData.film(size);
+        nextUser.set(size);
+    }
+
+    @Benchmark
+    public Film createFilm() {
+        return filmStorage.create(film);
+    }
+
+    @Benchmark
+    public Object updateFilm() {
+        Film update = BenchmarkData.film(size);
+        update.setId(ThreadLocalRandom.current().nextLong(1, size + 1));
+        return filmStorage.update(update);
+    }
+
+    @Benchmark
+    public User createUser() {
+        return userStorage.create(BenchmarkData.user(nextUser.getAndIncrement()));
+    }
+
+    @Benchmark
+    public Object updateUser() {
+        // пользователь с id = i + 1 создан из user(i): обновление сохраняет его почту и логин
+        long id = ThreadLocalRandom.current().nextLong(1, size + 1);
+        User update = BenchmarkData.user(id - 1);
+        update.setId(id);
+        return userStorage.update(update);
+    }
+}
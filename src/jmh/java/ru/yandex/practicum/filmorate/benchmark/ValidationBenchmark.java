@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserCreate;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.util.concurrent.TimeUnit;
+
+// Ручная проверка из контроллеров против Bean Validation
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private ValidatorFactory factory;
+    private Validator validator;
+    private Film film;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+        film = BenchmarkData.film(1);
+        user = BenchmarkData.user(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Benchmark
+    public Film validateFilmManually() {
+        FilmService.validate(film);
+        return film;
+    }
+
+    @Benchmark
+    public Object validateFilmConstraints() {
+        return validator.validate(film);
+    }
+
+    @Benchmark
+    public User validateUserManually() {
+        UserService.validate(user);
+        return user;
+    }
+
+    @Benchmark
+    public Object validateUserConstraints() {
+        return validator.validate(user, UserCreate.class);
+    }
+}
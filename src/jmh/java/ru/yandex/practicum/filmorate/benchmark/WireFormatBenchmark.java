@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.wire.WireFormat;
+import ru.yandex.practicum.filmorate.wire.WireMappers;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Кодирование и разбор ответов в JSON, Smile и CBOR: одна запись и страница из 1000 записей.
+// Размеры тех же ответов печатает WireSizeReport
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+    private static final int PAGE = 1000;
+
+    @Param({"JSON", "SMILE", "CBOR"})
+    private WireFormat format;
+
+    private ObjectWriter writer;
+    private ObjectReader filmReader;
+    private ObjectReader filmPageReader;
+    private ObjectReader userPageReader;
+    private Film film;
+    private List<Film> films;
+    private List<User> users;
+    private byte[] filmBytes;
+    private byte[] filmPageBytes;
+    private byte[] userPageBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        WireMappers mappers = BenchmarkData.wireMappers();
+        writer = mappers.mapper(format).writer();
+        filmReader = mappers.mapper(format).readerFor(Film.class);
+        filmPageReader = mappers.mapper(format).readerFor(Film[].class);
+        userPageReader = mappers.mapper(format).readerFor(User[].class);
+        films = new ArrayList<>(PAGE);
+        users = new ArrayList<>(PAGE);
+        for (int i = 1; i <= PAGE; i++) {
+            Film next = BenchmarkData.film(i);
+            next.setId((long) i);
+            next.setVersion((long) i);
+            films.add(next);
+            User user = BenchmarkData.user(i);
+            user.setId((long) i);
+            user.setVersion((long) i);
+            users.add(user);
+        }
+        film = films.get(0);
+        filmBytes = writer.writeValueAsBytes(film);
+        filmPageBytes = writer.writeValueAsBytes(films);
+        userPageBytes = writer.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] writeFilm() throws IOException {
+        return writer.writeValueAsBytes(film);
+    }
+
+    @Benchmark
+    public Film readFilm() throws IOException {
+        return filmReader.readValue(filmBytes);
+    }
+
+    @Benchmark
+    public byte[] writeFilmPage() throws IOException {
+        return writer.writeValueAsBytes(films);
+    }
+
+    @Benchmark
+    public Film[] readFilmPage() throws IOException {
+        return filmPageReader.readValue(filmPageBytes);
+    }
+
+    @Benchmark
+    public byte[] writeUserPage() throws IOException {
+        return writer.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public User[] readUserPage() throws IOException {
+        return userPageReader.readValue(userPageBytes);
+    }
+}
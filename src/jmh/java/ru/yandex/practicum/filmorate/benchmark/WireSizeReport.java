@@ -0,0 +1,56 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.wire.WireFormat;
+import ru.yandex.practicum.filmorate.wire.WireMappers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+// Размер ответов в JSON, Smile и CBOR, без сжатия и после gzip: одна запись и страница из 1000 записей.
+// Запуск: mvn -Pbenchmarks verify
+public final class WireSizeReport {
+    private static final int PAGE = 1000;
+
+    private WireSizeReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        WireMappers mappers = BenchmarkData.wireMappers();
+        List<Film> films = new ArrayList<>(PAGE);
+        List<User> users = new ArrayList<>(PAGE);
+        for (int i = 1; i <= PAGE; i++) {
+            Film film = BenchmarkData.film(i);
+            film.setId((long) i);
+            film.setVersion((long) i);
+            films.add(film);
+            User user = BenchmarkData.user(i);
+            user.setId((long) i);
+            user.setVersion((long) i);
+            users.add(user);
+        }
+        System.out.printf("%-6s %10s %14s %14s %14s%n", "формат", "фильм", "1000 фильмов", "gzip", "1000 польз.");
+        for (WireFormat format : WireFormat.values()) {
+            byte[] page = mappers.mapper(format).writeValueAsBytes(films);
+            System.out.printf("%-6s %10d %14d %14d %14d%n", format,
+                    size(mappers, format, films.get(0)), page.length, gzip(page), size(mappers, format, users));
+        }
+    }
+
+    private static int size(WireMappers mappers, WireFormat format, Object value) throws JsonProcessingException {
+        return mappers.mapper(format).writeValueAsBytes(value).length;
+    }
+
+    private static int gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.size();
+    }
+}
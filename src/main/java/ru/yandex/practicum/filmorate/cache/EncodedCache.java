@@ -0,0 +1,89 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import ru.yandex.practicum.filmorate.wire.WireFormat;
+import ru.yandex.practicum.filmorate.wire.WireMappers;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Готовые байты ответов. Каждая запись помечена версией, из которой собрана:
+// запись другой версии считается промахом, поэтому после изменения данных устаревший ответ не отдается,
+// даже если до него еще не дошла явная очистка.
+// Один и тот же ответ в разных форматах хранится отдельными записями.
+// Одновременные промахи по одному ключу и версии собирают ответ один раз, остальные ждут его (coalescing)
+public class EncodedCache {
+    private final Cache<Key, Encoded> cache;
+    private final Map<WireFormat, ObjectWriter> writers = new EnumMap<>(WireFormat.class);
+    private final SingleFlight<Flight, Encoded> flights;
+
+    public EncodedCache(WireMappers mappers, long maxBytes, Duration ttl) {
+        this(mappers, maxBytes, ttl, true);
+    }
+
+    public EncodedCache(WireMappers mappers, long maxBytes, Duration ttl, boolean coalescing) {
+        this.flights = coalescing ? new SingleFlight<>() : null;
+        for (WireFormat format : WireFormat.values()) {
+            writers.put(format, mappers.mapper(format).writer());
+        }
+        // W-TinyLFU: одноразовые ключи (страницы с редкими курсорами) не вытесняют горячие
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, Encoded value) -> value.bytes().length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public byte[] get(String key, WireFormat format, long version, Supplier<?> body) {
+        Key cacheKey = new Key(key, format);
+        Encoded cached = cache.getIfPresent(cacheKey);
+        if (cached != null && cached.version() == version) {
+            return cached.bytes();
+        }
+        Encoded fresh = flights == null
+                ? new Encoded(version, encode(format, body.get()))
+                : flights.execute(new Flight(cacheKey, version), () -> new Encoded(version, encode(format, body.get())));
+        // параллельный запрос мог уже положить ответ более новой версии: его не затираем
+        cache.asMap().merge(cacheKey, fresh, (old, value) -> old.version() >= value.version() ? old : value);
+        return fresh.bytes();
+    }
+
+    public void invalidate(String key) {
+        for (WireFormat format : WireFormat.values()) {
+            cache.invalidate(new Key(key, format));
+        }
+    }
+
+    public Cache<?, ?> cache() {
+        return cache;
+    }
+
+    // null, если схлопывание выключено
+    public SingleFlight<?, ?> flights() {
+        return flights;
+    }
+
+    private byte[] encode(WireFormat format, Object body) {
+        try {
+            return writers.get(format).writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Key(String key, WireFormat format) {
+    }
+
+    private record Flight(Key key, long version) {
+    }
+
+    private record Encoded(long version, byte[] bytes) {
+    }
+}
@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.wire.WireMappers;
+
+import java.time.Duration;
+
+// Отдельные кэши для фильмов и пользователей, чтобы у каждого были свой лимит и своя статистика
+@Component
+public class ResponseCache {
+    private final EncodedCache films;
+    private final EncodedCache users;
+
+    public ResponseCache(WireMappers mappers,
+                         @Value("${filmorate.cache.max-bytes:67108864}") long maxBytes,
+                         @Value("${filmorate.cache.ttl-ms:600000}") long ttlMs,
+                         @Value("${filmorate.cache.coalescing:true}") boolean coalescing) {
+        this.films = new EncodedCache(mappers, maxBytes, Duration.ofMillis(ttlMs), coalescing);
+        this.users = new EncodedCache(mappers, maxBytes, Duration.ofMillis(ttlMs), coalescing);
+    }
+
+    public EncodedCache films() {
+        return films;
+    }
+
+    public EncodedCache users() {
+        return users;
+    }
+}
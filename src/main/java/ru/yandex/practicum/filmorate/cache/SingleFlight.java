@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Схлопывание одинаковых одновременных вычислений: первый запрос с ключом считает сам,
+// остальные, пришедшие до конца расчета, ждут и получают тот же результат (или ту же ошибку).
+// Результат не запоминается: после завершения следующий запрос с тем же ключом считает заново
+public class SingleFlight<K, V> {
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong leaders = new AtomicLong();
+    private final AtomicLong followers = new AtomicLong();
+
+    public V execute(K key, Supplier<V> computation) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            followers.incrementAndGet();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        leaders.incrementAndGet();
+        try {
+            V value = computation.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // запросы, посчитавшие результат сами
+    public long leaders() {
+        return leaders.get();
+    }
+
+    // запросы, получившие чужой результат
+    public long followers() {
+        return followers.get();
+    }
+}
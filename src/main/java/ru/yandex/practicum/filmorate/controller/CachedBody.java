@@ -0,0 +1,28 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.yandex.practicum.filmorate.wire.WireFormat;
+
+// Ответ из уже закодированных байтов: Jackson на этом пути не вызывается
+final class CachedBody {
+
+    private CachedBody() {
+    }
+
+    // формат выбран по Accept, поэтому промежуточные кэши должны различать ответы по этому заголовку
+    static ResponseEntity<byte[]> ok(byte[] body, WireFormat format) {
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .body(body);
+    }
+
+    // 304 тоже зависит от Accept: ETag у каждого формата свой
+    static <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import ru.yandex.practicum.filmorate.wire.WireFormat;
+
+import java.util.Locale;
+
+// Сильный ETag - версия хранилища или записи; ее же клиент передает в since для получения изменений.
+// JSON, Smile и CBOR - разные байты одного ресурса, поэтому у двоичных форматов к версии добавляется формат:
+// "5" для JSON, "5-smile" для Smile. Для since берется число до дефиса
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(long version, WireFormat format) {
+        return format == WireFormat.JSON
+                ? "\"" + version + "\""
+                : "\"" + version + "-" + format.name().toLowerCase(Locale.ROOT) + "\"";
+    }
+}
@@ -1,79 +1,184 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import jakarta.validation.Valid;
-import lombok.NoArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.cache.EncodedCache;
+import ru.yandex.practicum.filmorate.cache.ResponseCache;
+import ru.yandex.practicum.filmorate.event.DomainEvent;
+import ru.yandex.practicum.filmorate.event.EventBus;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.film.FilmQuery;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.wire.WireFormat;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/films")
-@Slf4j
-@NoArgsConstructor
+@RequiredArgsConstructor
 public class FilmController {
 
-    private long generatorId = 0;
-    private final Map<Long, Film> films = new HashMap<>();
-    public static final LocalDate MIN_RELEASE_DATE = LocalDate.of(1895, 12, 28);
+    private final FilmStorage filmStorage;
+    private final NdjsonWriter ndjsonWriter;
+    private final NdjsonReader ndjsonReader;
+    private final ResponseCache responseCache;
+    private final FilmService filmService;
+    private final EventBus eventBus;
+    private final StreamedBody streamedBody;
+
+    // весь список не кэшируется: запись на каждый формат держала бы в куче копии каталога
+    // и пересобиралась бы целиком после каждого изменения. Пишем его в ответ потоком
+    @GetMapping(params = {"!afterId", "!limit", "!since"})
+    public ResponseEntity<StreamingResponseBody> findAll(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept, WebRequest request) {
+        long version = filmStorage.version();
+        WireFormat format = WireFormat.negotiate(accept);
+        if (request.checkNotModified(ETags.of(version, format))) {
+            return CachedBody.notModified();
+        }
+        return streamedBody.ok(filmStorage.findAll(), format);
+    }
 
     @GetMapping
-    public List<Film> findAll() {
-        return new ArrayList<>(films.values());
+    public ResponseEntity<byte[]> findPage(@RequestParam(required = false) Long afterId,
+                                           @RequestParam(required = false) Integer limit,
+                                           @RequestParam(required = false) Long since,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                           WebRequest request) {
+        // версия берется до чтения: ответ может оказаться новее своего ETag, но не старее
+        long version = filmStorage.version();
+        WireFormat format = WireFormat.negotiate(accept);
+        if (request.checkNotModified(ETags.of(version, format))) {
+            // 304 без сериализации списка
+            return CachedBody.notModified();
+        }
+        EncodedCache cache = responseCache.films();
+        if (since != null) {
+            // только изменения после прошлой синхронизации; since - ETag предыдущего ответа
+            return CachedBody.ok(cache.get("since:" + since, format, version,
+                    () -> filmStorage.findChangedSince(since, version)), format);
+        }
+        // постраничная выдача по курсору: следующая страница запрашивается с afterId = id последней записи
+        long after = Paging.afterId(afterId);
+        int size = Paging.limit(limit);
+        return CachedBody.ok(cache.get("page:" + after + ":" + size, format, version,
+                () -> filmStorage.findPage(after, size)), format);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<byte[]> findById(@PathVariable long id,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                           WebRequest request) {
+        Film film = filmStorage.findById(id)
+                .orElseThrow(() -> new NotFoundException("Фильм с id = " + id + " не найден"));
+        WireFormat format = WireFormat.negotiate(accept);
+        if (request.checkNotModified(ETags.of(film.getVersion(), format))) {
+            return CachedBody.notModified();
+        }
+        return CachedBody.ok(responseCache.films().get(recordKey(id), format, film.getVersion(), () -> film), format);
+    }
+
+    // все слова q должны встретиться в названии или описании; продолжительность - в тех же единицах, что и в фильме
+    @GetMapping("/search")
+    public List<Film> search(@RequestParam(required = false) String q,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                             LocalDate releasedFrom,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                             LocalDate releasedTo,
+                             @RequestParam(required = false) Long minDuration,
+                             @RequestParam(required = false) Long maxDuration,
+                             @RequestParam(required = false) Long afterId,
+                             @RequestParam(required = false) Integer limit) {
+        if (releasedFrom != null && releasedTo != null && releasedFrom.isAfter(releasedTo)) {
+            throw new ValidationException("Начало периода релиза позже его конца");
+        }
+        if (minDuration != null && maxDuration != null && minDuration > maxDuration) {
+            throw new ValidationException("Минимальная продолжительность больше максимальной");
+        }
+        return filmStorage.search(new FilmQuery(q, releasedFrom, releasedTo,
+                minDuration == null ? null : Duration.ofSeconds(minDuration),
+                maxDuration == null ? null : Duration.ofSeconds(maxDuration),
+                Paging.afterId(afterId), Paging.limit(limit)));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamAll(@RequestParam(required = false) Long afterId,
+                                           @RequestParam(required = false) Long limit) {
+        return ndjsonWriter.write(filmStorage.findAfter(Paging.afterId(afterId)), limit == null ? Long.MAX_VALUE : limit);
     }
 
     @PostMapping
     public Film createFilm(@Valid @RequestBody Film film) {
-        log.info("Добавляем новый фильм: {}", film);
         // проверяем выполнение необходимых условий
-        validate(film);
-        // формируем дополнительные данные
-        film.setId(getNextId());
-        // добавляем новый фильм
-        films.put(film.getId(), film);
-        return film;
+        FilmService.validate(film);
+        // добавляем новый фильм, id выдает хранилище
+        Film created = filmStorage.create(film);
+        eventBus.publish(new DomainEvent.FilmCreated(created));
+        return created;
     }
 
 
     @PutMapping
     public Film updateFilm(@Valid @RequestBody Film newFilm) {
-        log.info("Обновляем фильм: {}", newFilm);
-        if (films.containsKey(newFilm.getId())) {
-            validate(newFilm);
-            Film oldFilm = films.get(newFilm.getId());
-            oldFilm.setName(newFilm.getName());
-            oldFilm.setDescription(newFilm.getDescription());
-            oldFilm.setReleaseDate(newFilm.getReleaseDate());
-            oldFilm.setDuration(newFilm.getDuration());
-            return oldFilm;
-        } else {
-            throw new IllegalArgumentException("Фильм с указанным ID не найден");
-        }
+        FilmService.validate(newFilm);
+        Film updated = filmStorage.update(newFilm)
+                .orElseThrow(() -> new IllegalArgumentException("Фильм с указанным ID не найден"));
+        responseCache.films().invalidate(recordKey(updated.getId()));
+        eventBus.publish(new DomainEvent.FilmUpdated(updated));
+        return updated;
     }
 
-    public static void validate(Film film) {
-        validateFilm(film);
+    // пакет принимается JSON-массивом или NDJSON; результат по каждой записи, ошибки не отменяют остальные
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BatchResult createFilms(InputStream body) throws IOException {
+        return filmService.createAll(ndjsonReader.read(body, Film.class));
     }
 
-    private static void validateFilm(Film film) {
-        if (film.getReleaseDate().isBefore(MIN_RELEASE_DATE)) {
-            log.warn("Дата релиза {} ранее {}", film.getReleaseDate(), MIN_RELEASE_DATE);
-            throw new ValidationException("Дата релиза не может быть ранее " + MIN_RELEASE_DATE);
-        }
-        if (!film.getDuration().isPositive()) {
-            log.warn("Продолжительность фильма {} не является положительным числом", film.getDuration());
-            throw new ValidationException("Продолжительность фильма должна быть положительным числом");
+    @PutMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BatchResult updateFilms(InputStream body) throws IOException {
+        BatchResult result = filmService.updateAll(ndjsonReader.read(body, Film.class));
+        for (BatchItemResult item : result.getItems()) {
+            if (item.getStatus() == BatchItemResult.Status.UPDATED) {
+                responseCache.films().invalidate(recordKey(item.getId()));
+            }
         }
+        return result;
+    }
+
+    @PutMapping("/{id}/like/{userId}")
+    public void addLike(@PathVariable long id, @PathVariable long userId) {
+        filmService.addLike(id, userId);
+    }
+
+    @DeleteMapping("/{id}/like/{userId}")
+    public void removeLike(@PathVariable long id, @PathVariable long userId) {
+        filmService.removeLike(id, userId);
+    }
+
+    @GetMapping("/popular")
+    public List<Film> getPopular(@RequestParam(defaultValue = "10") int count) {
+        return filmService.getPopular(count);
     }
 
-    private long getNextId() {
-        return ++generatorId;
+    // списки помечены версией хранилища и устаревают сами; запись кэша по id убираем явно при изменении
+    private static String recordKey(long id) {
+        return "id:" + id;
     }
 
 }
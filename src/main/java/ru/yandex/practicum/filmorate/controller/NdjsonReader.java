@@ -0,0 +1,28 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+// Читает пакет записей: JSON-массив или NDJSON (по записи на строку), разбирая поток без промежуточной строки
+@Component
+@RequiredArgsConstructor
+public class NdjsonReader {
+    private final ObjectMapper objectMapper;
+
+    public <T> List<T> read(InputStream in, Class<T> type) throws IOException {
+        // MappingIterator сам разворачивает массив верхнего уровня и читает последовательность значений
+        try (MappingIterator<T> iterator = objectMapper.readerFor(type).readValues(in)) {
+            return iterator.readAll();
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Некорректные данные пакета: " + e.getOriginalMessage());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+
+// Пишет записи в ответ по одной на строку (NDJSON), не собирая промежуточный список
+@Component
+@RequiredArgsConstructor
+public class NdjsonWriter {
+    private final ObjectMapper objectMapper;
+
+    public StreamingResponseBody write(Iterable<?> items, long limit) {
+        return out -> {
+            // сбрасываем буфер не после каждой записи, а по мере заполнения
+            try (SequenceWriter writer = objectMapper.writer()
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("\n")
+                    .writeValues(StreamUtils.nonClosing(out))) {
+                Iterator<?> iterator = items.iterator();
+                for (long i = 0; i < limit && iterator.hasNext(); i++) {
+                    writer.write(iterator.next());
+                }
+            }
+        };
+    }
+}
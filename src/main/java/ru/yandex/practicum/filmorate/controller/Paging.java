@@ -0,0 +1,25 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+public final class Paging {
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    private Paging() {
+    }
+
+    public static int limit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new ValidationException("Размер страницы должен быть от 1 до " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    public static long afterId(Long afterId) {
+        return afterId == null ? 0 : afterId;
+    }
+}
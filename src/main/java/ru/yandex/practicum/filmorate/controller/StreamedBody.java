@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.wire.WireFormat;
+import ru.yandex.practicum.filmorate.wire.WireMappers;
+
+// Массив записей в выбранном формате пишется в ответ по одной записи, без промежуточного byte[]:
+// для ответов размером с каталог, которые не держим в куче и не кэшируем
+@Component
+@RequiredArgsConstructor
+public class StreamedBody {
+    private final WireMappers mappers;
+
+    public ResponseEntity<StreamingResponseBody> ok(Iterable<?> items, WireFormat format) {
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter writer = mappers.mapper(format).writer()
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .writeValues(StreamUtils.nonClosing(out))
+                    .init(true)) {
+                for (Object item : items) {
+                    writer.write(item);
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .body(body);
+    }
+}
@@ -1,73 +1,183 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import jakarta.validation.Valid;
-import lombok.NoArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.cache.EncodedCache;
+import ru.yandex.practicum.filmorate.cache.ResponseCache;
+import ru.yandex.practicum.filmorate.event.DomainEvent;
+import ru.yandex.practicum.filmorate.event.EventBus;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.model.UserCreate;
+import ru.yandex.practicum.filmorate.service.RecommendationService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.wire.WireFormat;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/users")
-@Slf4j
-@NoArgsConstructor
+@RequiredArgsConstructor
 public class UserController {
-    private long generatorId = 0;
-    private final Map<Long, User> users = new HashMap<>();
+    private final UserStorage userStorage;
+    private final NdjsonWriter ndjsonWriter;
+    private final NdjsonReader ndjsonReader;
+    private final ResponseCache responseCache;
+    private final UserService userService;
+    private final RecommendationService recommendationService;
+    private final EventBus eventBus;
+    private final StreamedBody streamedBody;
+
+    // весь список не кэшируется: запись на каждый формат держала бы в куче копии каталога
+    // и пересобиралась бы целиком после каждого изменения. Пишем его в ответ потоком
+    @GetMapping(params = {"!afterId", "!limit", "!since"})
+    public ResponseEntity<StreamingResponseBody> findAll(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept, WebRequest request) {
+        long version = userStorage.version();
+        WireFormat format = WireFormat.negotiate(accept);
+        if (request.checkNotModified(ETags.of(version, format))) {
+            return CachedBody.notModified();
+        }
+        return streamedBody.ok(userStorage.findAll(), format);
+    }
 
     @GetMapping
-    public List<User> findAll() {
-        return new ArrayList<>(users.values());
+    public ResponseEntity<byte[]> findPage(@RequestParam(required = false) Long afterId,
+                                           @RequestParam(required = false) Integer limit,
+                                           @RequestParam(required = false) Long since,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                           WebRequest request) {
+        // версия берется до чтения: ответ может оказаться новее своего ETag, но не старее
+        long version = userStorage.version();
+        WireFormat format = WireFormat.negotiate(accept);
+        if (request.checkNotModified(ETags.of(version, format))) {
+            // 304 без сериализации списка
+            return CachedBody.notModified();
+        }
+        EncodedCache cache = responseCache.users();
+        if (since != null) {
+            // только изменения после прошлой синхронизации; since - ETag предыдущего ответа
+            return CachedBody.ok(cache.get("since:" + since, format, version,
+                    () -> userStorage.findChangedSince(since, version)), format);
+        }
+        // постраничная выдача по курсору: следующая страница запрашивается с afterId = id последней записи
+        long after = Paging.afterId(afterId);
+        int size = Paging.limit(limit);
+        return CachedBody.ok(cache.get("page:" + after + ":" + size, format, version,
+                () -> userStorage.findPage(after, size)), format);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<byte[]> findById(@PathVariable long id,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                           WebRequest request) {
+        User user = userStorage.findById(id)
+                .orElseThrow(() -> new NotFoundException("Пользователь с id = " + id + " не найден"));
+        WireFormat format = WireFormat.negotiate(accept);
+        if (request.checkNotModified(ETags.of(user.getVersion(), format))) {
+            return CachedBody.notModified();
+        }
+        return CachedBody.ok(responseCache.users().get(recordKey(id), format, user.getVersion(), () -> user), format);
+    }
+
+    @GetMapping("/by-email/{email}")
+    public User findByEmail(@PathVariable String email) {
+        return userStorage.findByEmail(email)
+                .orElseThrow(() -> new NotFoundException("Пользователь с почтой " + email + " не найден"));
+    }
+
+    @GetMapping("/by-login/{login}")
+    public User findByLogin(@PathVariable String login) {
+        return userStorage.findByLogin(login)
+                .orElseThrow(() -> new NotFoundException("Пользователь с логином " + login + " не найден"));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamAll(@RequestParam(required = false) Long afterId,
+                                           @RequestParam(required = false) Long limit) {
+        return ndjsonWriter.write(userStorage.findAfter(Paging.afterId(afterId)), limit == null ? Long.MAX_VALUE : limit);
     }
 
     @PostMapping
     public User createUser(@Valid @RequestBody @Validated(UserCreate.class) User user) {
-        log.info("Создаем нового пользователя: {}", user);
         // проверяем выполнение необходимых условий
-        validate(user);
-        // формируем дополнительные данные
-        user.setId(getNextId());
-        // добавляем нового пользователя
-        users.put(user.getId(), user);
-        return user;
+        UserService.validate(user);
+        // добавляем нового пользователя, id выдает хранилище
+        User created = userStorage.create(user);
+        eventBus.publish(new DomainEvent.UserCreated(created));
+        return created;
     }
 
 
     @PutMapping
     public User updateUser(@Valid @RequestBody User newUser) {
-        log.info("Обновляем пользователя: {}", newUser);
-        if (users.containsKey(newUser.getId())) {
-            validate(newUser);
-            User oldUser = users.get(newUser.getId());
-            oldUser.setEmail(newUser.getEmail());
-            oldUser.setLogin(newUser.getLogin());
-            oldUser.setName(newUser.getName());
-            oldUser.setBirthday(newUser.getBirthday());
-            return oldUser;
-        } else {
-            throw new IllegalArgumentException("Пользователь с указанным ID не найден");
-        }
+        UserService.validate(newUser);
+        User updated = userStorage.update(newUser)
+                .orElseThrow(() -> new IllegalArgumentException("Пользователь с указанным ID не найден"));
+        responseCache.users().invalidate(recordKey(updated.getId()));
+        eventBus.publish(new DomainEvent.UserUpdated(updated));
+        return updated;
     }
 
-    public static void validate(User user) {
-        validateUser(user);
+    // пакет принимается JSON-массивом или NDJSON; результат по каждой записи, ошибки не отменяют остальные
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BatchResult createUsers(InputStream body) throws IOException {
+        return userService.createAll(ndjsonReader.read(body, User.class));
     }
 
-    private static void validateUser(User user) {
-        if (user.getName() == null || user.getName().isBlank()) { // имя может быть пустым -> заполняется логином
-            log.info("Пустое имя заполняется логином");
-            user.setName(user.getLogin());
+    @PutMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BatchResult updateUsers(InputStream body) throws IOException {
+        BatchResult result = userService.updateAll(ndjsonReader.read(body, User.class));
+        for (BatchItemResult item : result.getItems()) {
+            if (item.getStatus() == BatchItemResult.Status.UPDATED) {
+                responseCache.users().invalidate(recordKey(item.getId()));
+            }
         }
+        return result;
+    }
+
+    @PutMapping("/{id}/friends/{friendId}")
+    public void addFriend(@PathVariable long id, @PathVariable long friendId) {
+        userService.addFriend(id, friendId);
+    }
+
+    @DeleteMapping("/{id}/friends/{friendId}")
+    public void removeFriend(@PathVariable long id, @PathVariable long friendId) {
+        userService.removeFriend(id, friendId);
+    }
+
+    @GetMapping("/{id}/friends")
+    public List<User> getFriends(@PathVariable long id) {
+        return userService.getFriends(id);
+    }
+
+    @GetMapping("/{id}/friends/common/{otherId}")
+    public List<User> getCommonFriends(@PathVariable long id, @PathVariable long otherId) {
+        return userService.getCommonFriends(id, otherId);
+    }
+
+    // фильмы, понравившиеся пользователям с похожими лайками; соседи пересчитываются в фоне
+    @GetMapping("/{id}/recommendations")
+    public List<Film> getRecommendations(@PathVariable long id, @RequestParam(defaultValue = "10") int count) {
+        return recommendationService.getRecommendations(id, count);
     }
 
-    private long getNextId() {
-        return ++generatorId;
+    // списки помечены версией хранилища и устаревают сами; запись кэша по id убираем явно при изменении
+    private static String recordKey(long id) {
+        return "id:" + id;
     }
 
 }
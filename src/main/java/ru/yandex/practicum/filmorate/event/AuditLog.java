@@ -0,0 +1,29 @@
+package ru.yandex.practicum.filmorate.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+// Журнал изменений в отдельном логгере filmorate.audit. Запись целиком в текст превращается здесь,
+// в потоке получателя, а не в потоке запроса, как раньше в контроллерах
+@Slf4j(topic = "filmorate.audit")
+@Component
+public class AuditLog implements EventListener {
+
+    @Override
+    public String name() {
+        return "audit";
+    }
+
+    @Override
+    public void onEvent(DomainEvent event) {
+        if (event instanceof DomainEvent.FilmCreated created) {
+            log.info("Добавлен фильм: {}", created.film());
+        } else if (event instanceof DomainEvent.FilmUpdated updated) {
+            log.info("Обновлен фильм: {}", updated.film());
+        } else if (event instanceof DomainEvent.UserCreated created) {
+            log.info("Добавлен пользователь: {}", created.user());
+        } else if (event instanceof DomainEvent.UserUpdated updated) {
+            log.info("Обновлен пользователь: {}", updated.user());
+        }
+    }
+}
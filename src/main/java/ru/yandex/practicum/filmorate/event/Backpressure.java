@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.event;
+
+import java.util.Locale;
+
+// Что делать, когда очередь получателя заполнена
+public enum Backpressure {
+    // событие теряется, запрос не ждет
+    DROP_NEWEST,
+    // вытесняется самое старое событие очереди
+    DROP_OLDEST,
+    // запрос ждет места не дольше block-timeout-ms, потом событие теряется
+    BLOCK;
+
+    static Backpressure of(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
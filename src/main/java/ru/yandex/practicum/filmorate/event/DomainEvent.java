@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.event;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+// Изменение данных, о котором узнают аудит, файл событий и метрики.
+// Событие ссылается на сохраненную запись: хранилище записи не меняет, а заменяет целиком,
+// поэтому текст события собирается уже в потоке получателя, а не в потоке запроса
+public sealed interface DomainEvent {
+
+    String type();
+
+    Object payload();
+
+    // время события, мс от эпохи
+    long at();
+
+    record FilmCreated(Film film, long at) implements DomainEvent {
+        public FilmCreated(Film film) {
+            this(film, System.currentTimeMillis());
+        }
+
+        @Override
+        public String type() {
+            return "film-created";
+        }
+
+        @Override
+        public Object payload() {
+            return film;
+        }
+    }
+
+    record FilmUpdated(Film film, long at) implements DomainEvent {
+        public FilmUpdated(Film film) {
+            this(film, System.currentTimeMillis());
+        }
+
+        @Override
+        public String type() {
+            return "film-updated";
+        }
+
+        @Override
+        public Object payload() {
+            return film;
+        }
+    }
+
+    record UserCreated(User user, long at) implements DomainEvent {
+        public UserCreated(User user) {
+            this(user, System.currentTimeMillis());
+        }
+
+        @Override
+        public String type() {
+            return "user-created";
+        }
+
+        @Override
+        public Object payload() {
+            return user;
+        }
+    }
+
+    record UserUpdated(User user, long at) implements DomainEvent {
+        public UserUpdated(User user) {
+            this(user, System.currentTimeMillis());
+        }
+
+        @Override
+        public String type() {
+            return "user-updated";
+        }
+
+        @Override
+        public Object payload() {
+            return user;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package ru.yandex.practicum.filmorate.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.util.MpmcRingBuffer;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Раздает доменные события получателям. У каждого получателя своя ограниченная очередь без блокировок
+// и свой поток; поток запроса только кладет ссылку на событие в очереди и никогда не ждет получателя,
+// кроме явно настроенного backpressure=block.
+// Настройки получателя: filmorate.events.<name>.capacity, backpressure, sample-rate, block-timeout-ms
+@Slf4j
+@Component
+public class EventBus {
+    // пустая очередь опрашивается с такой паузой: события доставляются с задержкой до 1 мс,
+    // зато публикация не будит поток получателя
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final Subscription[] subscriptions;
+
+    public EventBus(List<EventListener> listeners, Environment environment) {
+        subscriptions = new Subscription[listeners.size()];
+        for (int i = 0; i < subscriptions.length; i++) {
+            subscriptions[i] = new Subscription(listeners.get(i), environment);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        for (Subscription subscription : subscriptions) {
+            subscription.thread.start();
+        }
+    }
+
+    // события, уже попавшие в очереди, доставляются до остановки
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (Subscription subscription : subscriptions) {
+            subscription.running = false;
+            LockSupport.unpark(subscription.thread);
+        }
+        for (Subscription subscription : subscriptions) {
+            subscription.thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    public void publish(DomainEvent event) {
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    private static final class Subscription {
+        private final EventListener listener;
+        private final MpmcRingBuffer<DomainEvent> queue;
+        private final Backpressure backpressure;
+        private final double sampleRate;
+        private final long blockTimeoutNanos;
+        private final Counter delivered;
+        private final Counter dropped;
+        private final Counter failed;
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        Subscription(EventListener listener, Environment environment) {
+            String prefix = "filmorate.events." + listener.name() + ".";
+            this.listener = listener;
+            this.queue = new MpmcRingBuffer<>(environment.getProperty(prefix + "capacity", Integer.class, 8192));
+            this.backpressure = Backpressure.of(environment.getProperty(prefix + "backpressure", "drop-newest"));
+            this.sampleRate = environment.getProperty(prefix + "sample-rate", Double.class, 1.0);
+            this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(
+                    environment.getProperty(prefix + "block-timeout-ms", Long.class, 10L));
+            this.delivered = counter(listener, "delivered");
+            this.dropped = counter(listener, "dropped");
+            this.failed = counter(listener, "failed");
+            Gauge.builder("filmorate.events.queue", queue, MpmcRingBuffer::size)
+                    .description("События в очереди получателя")
+                    .tag("listener", listener.name())
+                    .register(Metrics.globalRegistry);
+            this.thread = new Thread(this::run, "events-" + listener.name());
+            this.thread.setDaemon(true);
+        }
+
+        void offer(DomainEvent event) {
+            if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+                return;
+            }
+            if (queue.offer(event)) {
+                return;
+            }
+            switch (backpressure) {
+                case DROP_NEWEST -> dropped.increment();
+                case DROP_OLDEST -> {
+                    // место освобождаем за счет самого старого события; другие писатели могут занять его раньше
+                    while (!queue.offer(event)) {
+                        if (queue.poll() != null) {
+                            dropped.increment();
+                        }
+                    }
+                }
+                case BLOCK -> {
+                    long deadline = System.nanoTime() + blockTimeoutNanos;
+                    while (!queue.offer(event)) {
+                        if (System.nanoTime() - deadline >= 0) {
+                            dropped.increment();
+                            return;
+                        }
+                        LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                    }
+                }
+            }
+        }
+
+        private void run() {
+            boolean idle = true;
+            while (true) {
+                DomainEvent event = queue.poll();
+                if (event != null) {
+                    idle = false;
+                    deliver(event);
+                    continue;
+                }
+                if (!idle) {
+                    idle = true;
+                    listener.onIdle();
+                }
+                if (!running) {
+                    break;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+            listener.close();
+        }
+
+        private void deliver(DomainEvent event) {
+            try {
+                listener.onEvent(event);
+                delivered.increment();
+            } catch (RuntimeException e) {
+                failed.increment();
+                log.warn("Получатель событий {} не обработал {}", listener.name(), event.type(), e);
+            }
+        }
+
+        private static Counter counter(EventListener listener, String outcome) {
+            return Counter.builder("filmorate.events")
+                    .description("Доставка доменных событий получателям")
+                    .tag("listener", listener.name())
+                    .tag("outcome", outcome)
+                    .register(Metrics.globalRegistry);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ru.yandex.practicum.filmorate.event;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// События построчно в JSON (NDJSON) в файл: {"type":..., "at":..., "data":{...}}.
+// Пишется в буфер, на диск сбрасывается, когда очередь опустела
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.events.file.enabled", havingValue = "true")
+public class EventFileSink implements EventListener {
+    private static final int NEW_LINE = '\n';
+
+    private final ObjectWriter writer;
+    private final OutputStream out;
+
+    public EventFileSink(ObjectMapper objectMapper,
+                         @Value("${filmorate.events.file.path:data/events.ndjson}") Path path) throws IOException {
+        // файл остается открытым между событиями
+        this.writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.out = new BufferedOutputStream(Files.newOutputStream(path,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024);
+        log.info("События пишутся в {}", path.toAbsolutePath());
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public void onEvent(DomainEvent event) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("type", event.type());
+        line.put("at", event.at());
+        line.put("data", event.payload());
+        try {
+            writer.writeValue(out, line);
+            out.write(NEW_LINE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void onIdle() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            log.warn("Не удалось сбросить файл событий", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            log.warn("Не удалось закрыть файл событий", e);
+        }
+    }
+}
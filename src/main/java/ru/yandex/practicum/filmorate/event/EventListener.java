@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.event;
+
+// Получатель доменных событий. Вызывается из собственного потока получателя, события приходят по одному
+// в порядке публикации; медленный получатель не задерживает ни запросы, ни других получателей
+public interface EventListener {
+
+    // имя в настройках filmorate.events.<name>.* и в метриках
+    String name();
+
+    void onEvent(DomainEvent event);
+
+    // очередь опустела: время сбросить буферы
+    default void onIdle() {
+    }
+
+    // вызывается после остановки потока получателя, когда очередь разобрана
+    default void close() {
+    }
+}
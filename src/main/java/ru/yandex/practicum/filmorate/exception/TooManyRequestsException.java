@@ -0,0 +1,15 @@
+package ru.yandex.practicum.filmorate.exception;
+
+import lombok.Getter;
+
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+    // через сколько секунд у клиента снова появится разрешение, для заголовка Retry-After
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        // без стека: при всплеске таких исключений тысячи, а место отказа всегда одно
+        super(message, null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
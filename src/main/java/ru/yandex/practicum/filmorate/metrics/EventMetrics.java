@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.DomainEvent;
+import ru.yandex.practicum.filmorate.event.EventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Число изменений по типам событий. Считается в потоке получателя, запрос за метрику не платит
+@Component
+public class EventMetrics implements EventListener {
+    // получатель вызывается из одного потока, синхронизация не нужна
+    private final Map<String, Counter> counters = new HashMap<>();
+
+    @Override
+    public String name() {
+        return "metrics";
+    }
+
+    @Override
+    public void onEvent(DomainEvent event) {
+        counters.computeIfAbsent(event.type(), type -> Counter.builder("filmorate.domain.events")
+                        .description("Изменения данных по типам событий")
+                        .tag("type", type)
+                        .register(Metrics.globalRegistry))
+                .increment();
+    }
+}
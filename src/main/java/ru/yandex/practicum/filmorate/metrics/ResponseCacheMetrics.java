@@ -0,0 +1,44 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.cache.EncodedCache;
+import ru.yandex.practicum.filmorate.cache.ResponseCache;
+import ru.yandex.practicum.filmorate.cache.SingleFlight;
+
+// попадания, промахи, вытеснения и размер по каждому кэшу ответов;
+// для промахов - сколько собрано самим запросом и сколько получено от одновременного такого же
+@Component
+@RequiredArgsConstructor
+public class ResponseCacheMetrics implements MeterBinder {
+    private final ResponseCache responseCache;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, responseCache.films().cache(), "films");
+        CaffeineCacheMetrics.monitor(registry, responseCache.users().cache(), "users");
+        bindFlights(registry, responseCache.films(), "films");
+        bindFlights(registry, responseCache.users(), "users");
+    }
+
+    private static void bindFlights(MeterRegistry registry, EncodedCache cache, String name) {
+        SingleFlight<?, ?> flights = cache.flights();
+        if (flights == null) {
+            return;
+        }
+        FunctionCounter.builder("filmorate.cache.coalescing", flights, SingleFlight::leaders)
+                .description("Промахи кэша ответов по тому, кто собирал ответ")
+                .tag("cache", name)
+                .tag("role", "leader")
+                .register(registry);
+        FunctionCounter.builder("filmorate.cache.coalescing", flights, SingleFlight::followers)
+                .description("Промахи кэша ответов по тому, кто собирал ответ")
+                .tag("cache", name)
+                .tag("role", "follower")
+                .register(registry);
+    }
+}
@@ -0,0 +1,39 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+// Значения читаются только при сборе метрик, запись в хранилища ничего не платит
+@Component
+@RequiredArgsConstructor
+public class StorageMetrics implements MeterBinder {
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("filmorate.storage.size", filmStorage, FilmStorage::size)
+                .description("Количество записей в хранилище")
+                .tag("entity", "film")
+                .register(registry);
+        Gauge.builder("filmorate.storage.size", userStorage, UserStorage::size)
+                .description("Количество записей в хранилище")
+                .tag("entity", "user")
+                .register(registry);
+        // счётчик выданных id; rate() по нему даёт скорость создания
+        FunctionCounter.builder("filmorate.storage.ids", filmStorage, FilmStorage::issuedIds)
+                .description("Выданные идентификаторы")
+                .tag("entity", "film")
+                .register(registry);
+        FunctionCounter.builder("filmorate.storage.ids", userStorage, UserStorage::issuedIds)
+                .description("Выданные идентификаторы")
+                .tag("entity", "user")
+                .register(registry);
+    }
+}
@@ -0,0 +1,28 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+
+// Счётчики создаются один раз: на горячем пути только increment() без поиска метра и массивов тегов
+public final class ValidationMetrics {
+    private static final String NAME = "filmorate.validation";
+
+    public static final Counter RELEASE_DATE_BEFORE_1895 = failure("release-date-before-1895");
+    public static final Counter NON_POSITIVE_DURATION = failure("non-positive-duration");
+    public static final Counter BLANK_NAME_FILLED = Counter.builder(NAME)
+            .description("Исправления данных при проверке")
+            .tag("outcome", "fixed")
+            .tag("rule", "blank-name")
+            .register(Metrics.globalRegistry);
+
+    private ValidationMetrics() {
+    }
+
+    private static Counter failure(String rule) {
+        return Counter.builder(NAME)
+                .description("Отказы при проверке данных")
+                .tag("outcome", "rejected")
+                .tag("rule", rule)
+                .register(Metrics.globalRegistry);
+    }
+}
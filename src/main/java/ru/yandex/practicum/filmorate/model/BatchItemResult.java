@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Итог по одной записи пакета; index - позиция записи во входных данных
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+    private final int index;
+    private final Status status;
+    private final Long id;
+    private final String error;
+
+    public static BatchItemResult created(int index, long id) {
+        return new BatchItemResult(index, Status.CREATED, id, null);
+    }
+
+    public static BatchItemResult updated(int index, long id) {
+        return new BatchItemResult(index, Status.UPDATED, id, null);
+    }
+
+    public static BatchItemResult rejected(int index, String error) {
+        return new BatchItemResult(index, Status.REJECTED, null, error);
+    }
+
+    public static BatchItemResult conflict(int index, String error) {
+        return new BatchItemResult(index, Status.CONFLICT, null, error);
+    }
+
+    public static BatchItemResult notFound(int index, Long id) {
+        return new BatchItemResult(index, Status.NOT_FOUND, id, "Запись с указанным ID не найдена");
+    }
+
+    @JsonIgnore
+    public boolean isSucceeded() {
+        return status == Status.CREATED || status == Status.UPDATED;
+    }
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        REJECTED,
+        CONFLICT,
+        NOT_FOUND
+    }
+}
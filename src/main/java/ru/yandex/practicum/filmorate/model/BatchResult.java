@@ -0,0 +1,25 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Getter;
+
+import java.util.List;
+
+// Ответ пакетной операции: ошибки отдельных записей не отменяют остальные
+@Getter
+public class BatchResult {
+    private final int succeeded;
+    private final int failed;
+    private final List<BatchItemResult> items;
+
+    public BatchResult(List<BatchItemResult> items) {
+        int ok = 0;
+        for (BatchItemResult item : items) {
+            if (item.isSucceeded()) {
+                ok++;
+            }
+        }
+        this.succeeded = ok;
+        this.failed = items.size() - ok;
+        this.items = items;
+    }
+}
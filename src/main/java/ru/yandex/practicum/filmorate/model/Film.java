@@ -1,12 +1,14 @@
 package ru.yandex.practicum.filmorate.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 import java.time.Duration;
@@ -15,6 +17,7 @@ import java.time.LocalDate;
 @Data
 @EqualsAndHashCode(of = {"id"})
 @ToString
+@NoArgsConstructor
 @AllArgsConstructor
 public class Film {
     private Long id;
@@ -29,4 +32,11 @@ public class Film {
     @JsonFormat(shape = JsonFormat.Shape.NUMBER_INT)
     @NotNull(message = "Продолжительность не может быть пустой")
     private Duration duration;
+    // номер последнего изменения записи; назначается хранилищем, из запроса не читается
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    public Film(Long id, String name, String description, LocalDate releaseDate, Duration duration) {
+        this(id, name, description, releaseDate, duration, null);
+    }
 }
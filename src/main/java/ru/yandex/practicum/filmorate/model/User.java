@@ -1,10 +1,12 @@
 package ru.yandex.practicum.filmorate.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 import java.time.LocalDate;
@@ -12,6 +14,7 @@ import java.time.LocalDate;
 @Data
 @EqualsAndHashCode(of = {"id"})
 @ToString
+@NoArgsConstructor
 @AllArgsConstructor
 public class User {
     private Long id;
@@ -26,5 +29,11 @@ public class User {
     @PastOrPresent(message = "Дата рождения не может быть в будущем")
     @JsonFormat(pattern = "yyyy-MM-dd")
     private LocalDate birthday;
+    // номер последнего изменения записи; назначается хранилищем, из запроса не читается
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
 
+    public User(Long id, String email, String login, String name, LocalDate birthday) {
+        this(id, email, login, name, birthday, null);
+    }
 }
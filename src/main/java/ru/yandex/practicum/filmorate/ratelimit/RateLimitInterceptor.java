@@ -0,0 +1,114 @@
+package ru.yandex.practicum.filmorate.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.yandex.practicum.filmorate.exception.TooManyRequestsException;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Ограничение частоты запросов по клиенту перед контроллерами фильмов и пользователей.
+// Два ведра на клиента: для изменений (POST, PUT, DELETE) и для списков (GET всех записей, поиск, популярное).
+// Чтение одной записи по id не ограничивается. Клиент - значение заголовка filmorate.rate-limit.client-header,
+// а без него - адрес подключения. При отказе - 429 с Retry-After
+@Component
+@ConditionalOnProperty(name = "filmorate.rate-limit.enabled", havingValue = "true")
+public class RateLimitInterceptor implements HandlerInterceptor {
+    private static final Set<String> LIST_PATTERNS = Set.of("/films", "/users", "/films/stream", "/users/stream",
+            "/films/search", "/films/popular");
+
+    private final String clientHeader;
+    private final Limit writes;
+    private final Limit lists;
+
+    public RateLimitInterceptor(@Value("${filmorate.rate-limit.client-header:}") String clientHeader,
+                                @Value("${filmorate.rate-limit.write.per-second:50}") double writesPerSecond,
+                                @Value("${filmorate.rate-limit.write.burst:100}") int writeBurst,
+                                @Value("${filmorate.rate-limit.list.per-second:200}") double listsPerSecond,
+                                @Value("${filmorate.rate-limit.list.burst:400}") int listBurst,
+                                @Value("${filmorate.rate-limit.idle-ms:600000}") long idleMs) {
+        this.clientHeader = clientHeader;
+        this.writes = new Limit("write", writesPerSecond, writeBurst, Duration.ofMillis(idleMs));
+        this.lists = new Limit("list", listsPerSecond, listBurst, Duration.ofMillis(idleMs));
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Limit limit = limitFor(request);
+        if (limit != null) {
+            limit.acquire(client(request));
+        }
+        return true;
+    }
+
+    private Limit limitFor(HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return writes;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null && LIST_PATTERNS.contains(pattern.toString()) ? lists : null;
+    }
+
+    private String client(HttpServletRequest request) {
+        String client = clientHeader.isEmpty() ? null : request.getHeader(clientHeader);
+        return client == null || client.isBlank() ? request.getRemoteAddr() : client;
+    }
+
+    private static final class Limit {
+        private final String name;
+        private final double perSecond;
+        private final int burst;
+        // ведро клиента, который давно не приходил, удаляется: у него и так было бы полное ведро
+        private final Cache<String, TokenBucket> buckets;
+        private final Counter allowed;
+        private final Counter rejected;
+
+        Limit(String name, double perSecond, int burst, Duration idle) {
+            this.name = name;
+            this.perSecond = perSecond;
+            this.burst = burst;
+            this.buckets = Caffeine.newBuilder()
+                    .expireAfterAccess(idle)
+                    .maximumSize(1_000_000)
+                    .build();
+            this.allowed = counter(name, "allowed");
+            this.rejected = counter(name, "rejected");
+            Gauge.builder("filmorate.rate-limit.clients", buckets, Cache::estimatedSize)
+                    .description("Клиенты с ведром токенов")
+                    .tag("limit", name)
+                    .register(Metrics.globalRegistry);
+        }
+
+        void acquire(String client) {
+            long now = System.nanoTime();
+            long wait = buckets.get(client, key -> new TokenBucket(perSecond, burst, now)).tryAcquire(now);
+            if (wait == 0) {
+                allowed.increment();
+                return;
+            }
+            rejected.increment();
+            throw new TooManyRequestsException("Слишком много запросов (" + name + "), лимит " + perSecond
+                    + " в секунду", Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1)));
+        }
+
+        private static Counter counter(String limit, String outcome) {
+            return Counter.builder("filmorate.rate-limit")
+                    .description("Решения ограничителя частоты запросов")
+                    .tag("limit", limit)
+                    .tag("outcome", outcome)
+                    .register(Metrics.globalRegistry);
+        }
+    }
+}
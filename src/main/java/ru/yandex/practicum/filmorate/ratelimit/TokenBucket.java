@@ -0,0 +1,38 @@
+package ru.yandex.practicum.filmorate.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Ведро токенов без блокировок: состояние - одно число, момент, когда ведро снова станет полным
+// без новых запросов (схема GCRA). Запрос сдвигает этот момент на интервал одного токена CAS-ом;
+// если момент ушел дальше, чем на емкость ведра, токенов нет.
+// Отдельного потока пополнения нет: токены "появляются" просто с ходом времени
+public class TokenBucket {
+    private final long interval;
+    private final long tolerance;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(double perSecond, int burst, long now) {
+        if (perSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Скорость и емкость ведра должны быть положительными");
+        }
+        this.interval = Math.max(1, Math.round(1_000_000_000 / perSecond));
+        // запросов подряд без ожидания - burst: последний из них сдвигает момент на (burst - 1) интервалов
+        this.tolerance = interval * (burst - 1);
+        this.fullAt = new AtomicLong(now);
+    }
+
+    // 0, если токен взят; иначе сколько наносекунд ждать до следующего
+    public long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long start = Math.max(current, now);
+            long debt = start - now;
+            if (debt > tolerance) {
+                return debt - tolerance;
+            }
+            if (fullAt.compareAndSet(current, start + interval)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Проверка записей пакета: аннотации модели и правила контроллеров, без исключений наружу
+final class BatchValidation {
+    // мелкие пакеты быстрее проверить в текущем потоке, чем раздавать по ForkJoinPool
+    private static final int PARALLEL_THRESHOLD = 1024;
+
+    private BatchValidation() {
+    }
+
+    // ошибка по каждой позиции пакета; null - запись прошла проверку
+    static <T> String[] validate(List<T> batch, Validator validator, Consumer<T> rules, Class<?>... groups) {
+        String[] errors = new String[batch.size()];
+        IntStream indexes = IntStream.range(0, batch.size());
+        if (batch.size() >= PARALLEL_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> errors[i] = validate(batch.get(i), validator, rules, groups));
+        return errors;
+    }
+
+    private static <T> String validate(T item, Validator validator, Consumer<T> rules, Class<?>... groups) {
+        if (item == null) {
+            return "Пустая запись";
+        }
+        Set<ConstraintViolation<T>> violations = validator.validate(item, groups);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        try {
+            rules.accept(item);
+            return null;
+        } catch (ValidationException e) {
+            return e.getMessage();
+        }
+    }
+}
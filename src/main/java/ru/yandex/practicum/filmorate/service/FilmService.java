@@ -0,0 +1,140 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.event.DomainEvent;
+import ru.yandex.practicum.filmorate.event.EventBus;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.metrics.ValidationMetrics;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class FilmService {
+    public static final LocalDate MIN_RELEASE_DATE = LocalDate.of(1895, 12, 28);
+    // столько же, сколько в странице списка
+    public static final int MAX_POPULAR = 1000;
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final Validator validator;
+    private final RecommendationService recommendationService;
+    private final EventBus eventBus;
+
+    // правила, которых нет в аннотациях модели; общие для одиночных запросов и пакетов
+    public static void validate(Film film) {
+        if (film.getReleaseDate().isBefore(MIN_RELEASE_DATE)) {
+            log.warn("Дата релиза {} ранее {}", film.getReleaseDate(), MIN_RELEASE_DATE);
+            ValidationMetrics.RELEASE_DATE_BEFORE_1895.increment();
+            throw new ValidationException("Дата релиза не может быть ранее " + MIN_RELEASE_DATE);
+        }
+        if (!film.getDuration().isPositive()) {
+            log.warn("Продолжительность фильма {} не является положительным числом", film.getDuration());
+            ValidationMetrics.NON_POSITIVE_DURATION.increment();
+            throw new ValidationException("Продолжительность фильма должна быть положительным числом");
+        }
+    }
+
+    // записи проверяются параллельно, а в хранилище уходят одним пакетом; ошибки не прерывают остальные
+    public BatchResult createAll(List<Film> batch) {
+        String[] errors = BatchValidation.validate(batch, validator, FilmService::validate);
+        List<Film> created = filmStorage.createAll(accepted(batch, errors));
+        List<BatchItemResult> items = new ArrayList<>(batch.size());
+        int next = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            if (errors[i] != null) {
+                items.add(BatchItemResult.rejected(i, errors[i]));
+                continue;
+            }
+            Film film = created.get(next++);
+            items.add(BatchItemResult.created(i, film.getId()));
+            eventBus.publish(new DomainEvent.FilmCreated(film));
+        }
+        log.info("Пакетное добавление фильмов: принято {} из {}", created.size(), batch.size());
+        return new BatchResult(items);
+    }
+
+    public BatchResult updateAll(List<Film> batch) {
+        String[] errors = BatchValidation.validate(batch, validator, film -> {
+            if (film.getId() == null) {
+                throw new ValidationException("Не указан id фильма");
+            }
+            validate(film);
+        });
+        List<Film> accepted = accepted(batch, errors);
+        List<Optional<Film>> updated = filmStorage.updateAll(accepted);
+        List<BatchItemResult> items = new ArrayList<>(batch.size());
+        int next = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            if (errors[i] != null) {
+                items.add(BatchItemResult.rejected(i, errors[i]));
+                continue;
+            }
+            Long id = accepted.get(next).getId();
+            Optional<Film> film = updated.get(next++);
+            if (film.isPresent()) {
+                items.add(BatchItemResult.updated(i, id));
+                eventBus.publish(new DomainEvent.FilmUpdated(film.get()));
+            } else {
+                items.add(BatchItemResult.notFound(i, id));
+            }
+        }
+        log.info("Пакетное обновление фильмов: {} записей", batch.size());
+        return new BatchResult(items);
+    }
+
+    public void addLike(long filmId, long userId) {
+        checkFilmAndUser(filmId, userId);
+        if (filmStorage.addLike(filmId, userId)) {
+            recommendationService.likeChanged(filmId, userId);
+            log.debug("Пользователь {} поставил лайк фильму {}", userId, filmId);
+        }
+    }
+
+    public void removeLike(long filmId, long userId) {
+        checkFilmAndUser(filmId, userId);
+        if (filmStorage.removeLike(filmId, userId)) {
+            recommendationService.likeChanged(filmId, userId);
+            log.debug("Пользователь {} убрал лайк с фильма {}", userId, filmId);
+        }
+    }
+
+    public List<Film> getPopular(int count) {
+        if (count <= 0 || count > MAX_POPULAR) {
+            throw new ValidationException("Количество фильмов должно быть от 1 до " + MAX_POPULAR);
+        }
+        return filmStorage.findPopular(count);
+    }
+
+    private static List<Film> accepted(List<Film> batch, String[] errors) {
+        List<Film> accepted = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (errors[i] == null) {
+                accepted.add(batch.get(i));
+            }
+        }
+        return accepted;
+    }
+
+    private void checkFilmAndUser(long filmId, long userId) {
+        if (filmStorage.findById(filmId).isEmpty()) {
+            throw new NotFoundException("Фильм с id = " + filmId + " не найден");
+        }
+        if (userStorage.findById(userId).isEmpty()) {
+            throw new NotFoundException("Пользователь с id = " + userId + " не найден");
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
+import ru.yandex.practicum.filmorate.util.LongIntHashMap;
+import ru.yandex.practicum.filmorate.util.SortedLongArray;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+// Рекомендации по лайкам похожих пользователей. Сходство - коэффициент Жаккара между множествами лайков.
+// Соседи по вкусу считаются в фоне: заново строится только список пользователя, чьи лайки изменились,
+// остальным передается его новое сходство с ними. Запрос рекомендаций лишь объединяет лайки готовых соседей.
+@Service
+@Slf4j
+public class RecommendationService {
+    // мелкую порцию быстрее пересчитать в текущем потоке, чем раздавать по ForkJoinPool
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final int neighborCount;
+    // фильмы с большим числом лайков почти ничего не говорят о вкусе, а кандидатов дают больше всех: пропускаем
+    private final int maxFanout;
+    // соседи каждого пользователя; список заменяется целиком, поэтому читается без блокировок
+    private final Map<Long, Neighbors> neighbors = new ConcurrentHashMap<>();
+    // изменения лайков с прошлого пересчета
+    private final Queue<LikeChange> changes = new ConcurrentLinkedQueue<>();
+    private volatile boolean initialized;
+
+    public RecommendationService(FilmStorage filmStorage, UserStorage userStorage,
+                                 @Value("${filmorate.recommendations.neighbors:20}") int neighborCount,
+                                 @Value("${filmorate.recommendations.max-fanout:1000}") int maxFanout) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.neighborCount = neighborCount;
+        this.maxFanout = maxFanout;
+    }
+
+    // вызывается после изменения лайка в хранилище
+    public void likeChanged(long filmId, long userId) {
+        changes.add(new LikeChange(filmId, userId));
+    }
+
+    public List<Film> getRecommendations(long userId, int count) {
+        if (count <= 0) {
+            throw new ValidationException("Количество фильмов должно быть положительным числом");
+        }
+        if (userStorage.findById(userId).isEmpty()) {
+            throw new NotFoundException("Пользователь с id = " + userId + " не найден");
+        }
+        Neighbors similar = neighbors.get(userId);
+        if (similar == null) {
+            return List.of();
+        }
+        SortedLongArray mine = filmStorage.getLikedFilms(userId);
+        // вес фильма - сумма сходства соседей, которым он понравился
+        Map<Long, Double> scores = new HashMap<>();
+        for (int i = 0; i < similar.userIds().length; i++) {
+            SortedLongArray theirs = filmStorage.getLikedFilms(similar.userIds()[i]);
+            for (int j = 0; j < theirs.size(); j++) {
+                long filmId = theirs.get(j);
+                if (!mine.contains(filmId)) {
+                    scores.merge(filmId, similar.scores()[i], Double::sum);
+                }
+            }
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(entry -> filmStorage.findById(entry.getKey()))
+                .flatMap(Optional::stream)
+                .limit(count)
+                .toList();
+    }
+
+    @Scheduled(initialDelayString = "${filmorate.recommendations.refresh-interval-ms:1000}",
+            fixedDelayString = "${filmorate.recommendations.refresh-interval-ms:1000}")
+    public void refresh() {
+        long start = System.nanoTime();
+        if (!initialized) {
+            // первый проход строит списки всех, у кого есть лайки, в том числе восстановленных из журнала;
+            // накопленные изменения уже видны в хранилище
+            changes.clear();
+            LongHashSet users = new LongHashSet();
+            for (Film film : filmStorage.findAll()) {
+                addAll(users, filmStorage.getLikes(film.getId()));
+            }
+            parallel(users.toArray()).forEach(this::rebuild);
+            initialized = true;
+            log.info("Соседи по вкусу построены для {} пользователей за {} мс", users.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return;
+        }
+        Map<Long, LongHashSet> changed = new HashMap<>();
+        for (LikeChange change = changes.poll(); change != null; change = changes.poll()) {
+            changed.computeIfAbsent(change.userId(), id -> new LongHashSet()).add(change.filmId());
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        Set<Long> stale = ConcurrentHashMap.newKeySet();
+        parallel(changed.keySet().stream().mapToLong(Long::longValue).toArray())
+                .forEach(userId -> propagate(userId, changed.get(userId), stale));
+        parallel(stale.stream().mapToLong(Long::longValue).toArray()).forEach(this::rebuild);
+        log.debug("Соседи обновлены: изменились лайки у {}, пересчитано целиком {} за {} мс", changed.size(),
+                stale.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    // у пользователя сменились лайки: его список строится заново, а у остальных меняется только его сходство с ними
+    private void propagate(long userId, LongHashSet changedFilms, Set<Long> stale) {
+        SortedLongArray mine = filmStorage.getLikedFilms(userId);
+        LongIntHashMap common = rebuild(userId, mine);
+        common.forEach((other, count) ->
+                offer(other, userId, similarity(count, mine.size(), filmStorage.getLikedFilms(other).size()), stale));
+        // общих лайков с этими пользователями могло не остаться совсем
+        for (long filmId : changedFilms.toArray()) {
+            long[] likers = filmStorage.getLikes(filmId);
+            if (likers.length > maxFanout) {
+                continue;
+            }
+            for (long other : likers) {
+                if (other != userId && !common.containsKey(other)) {
+                    offer(other, userId, 0, stale);
+                }
+            }
+        }
+    }
+
+    private void rebuild(long userId) {
+        rebuild(userId, filmStorage.getLikedFilms(userId));
+    }
+
+    // список соседей по всем кандидатам; возвращает число общих лайков с каждым кандидатом
+    private LongIntHashMap rebuild(long userId, SortedLongArray mine) {
+        // кандидаты - только те, у кого есть хотя бы один общий лайк, а не все пользователи
+        LongIntHashMap common = new LongIntHashMap();
+        for (int i = 0; i < mine.size(); i++) {
+            long[] likers = filmStorage.getLikes(mine.get(i));
+            if (likers.length > maxFanout) {
+                continue;
+            }
+            for (long other : likers) {
+                if (other != userId) {
+                    common.add(other, 1);
+                }
+            }
+        }
+        TopNeighbors top = new TopNeighbors(neighborCount);
+        common.forEach((other, count) ->
+                top.offer(other, similarity(count, mine.size(), filmStorage.getLikedFilms(other).size())));
+        if (top.isEmpty()) {
+            neighbors.remove(userId);
+        } else {
+            neighbors.put(userId, top.build());
+        }
+        return common;
+    }
+
+    private void offer(long userId, long other, double score, Set<Long> stale) {
+        neighbors.compute(userId, (id, current) -> {
+            Neighbors list = current == null ? Neighbors.EMPTY : current;
+            int at = list.indexOf(other);
+            if (at >= 0 && score < list.scores()[at] && list.userIds().length == neighborCount) {
+                // сосед мог уступить место тому, кто в полный список не попал: такой список пересчитаем целиком
+                stale.add(userId);
+            }
+            Neighbors updated = list.with(other, score, neighborCount);
+            return updated.userIds().length == 0 ? null : updated;
+        });
+    }
+
+    private static double similarity(int common, int mine, int theirs) {
+        return common == 0 ? 0 : (double) common / (mine + theirs - common);
+    }
+
+    private static boolean better(double score, long id, double otherScore, long otherId) {
+        return score > otherScore || score == otherScore && id < otherId;
+    }
+
+    private static LongStream parallel(long[] ids) {
+        LongStream stream = Arrays.stream(ids);
+        return ids.length >= PARALLEL_THRESHOLD ? stream.parallel() : stream;
+    }
+
+    private static void addAll(LongHashSet target, long[] ids) {
+        for (long id : ids) {
+            target.add(id);
+        }
+    }
+
+    private record LikeChange(long filmId, long userId) {
+    }
+
+    // соседи по убыванию сходства, массивы одной длины; список не меняется, изменение дает новый
+    private record Neighbors(long[] userIds, double[] scores) {
+        static final Neighbors EMPTY = new Neighbors(new long[0], new double[0]);
+
+        int indexOf(long userId) {
+            for (int i = 0; i < userIds.length; i++) {
+                if (userIds[i] == userId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        // новое сходство с пользователем: переставляет его на свое место, при нулевом - убирает
+        Neighbors with(long userId, double score, int limit) {
+            long[] ids = new long[userIds.length + 1];
+            double[] values = new double[userIds.length + 1];
+            int n = 0;
+            boolean placed = score <= 0;
+            for (int i = 0; i < userIds.length; i++) {
+                if (userIds[i] == userId) {
+                    continue;
+                }
+                if (!placed && better(score, userId, scores[i], userIds[i])) {
+                    ids[n] = userId;
+                    values[n++] = score;
+                    placed = true;
+                }
+                ids[n] = userIds[i];
+                values[n++] = scores[i];
+            }
+            if (!placed) {
+                ids[n] = userId;
+                values[n++] = score;
+            }
+            n = Math.min(n, limit);
+            return new Neighbors(Arrays.copyOf(ids, n), Arrays.copyOf(values, n));
+        }
+    }
+
+    // лучшие соседи при полном пересчете: вставка в отсортированный массив, соседей немного и куча не нужна
+    private static final class TopNeighbors {
+        private final long[] ids;
+        private final double[] scores;
+        private int found;
+
+        TopNeighbors(int limit) {
+            ids = new long[limit];
+            scores = new double[limit];
+        }
+
+        void offer(long userId, double score) {
+            if (score <= 0) {
+                return;
+            }
+            int at = found;
+            while (at > 0 && better(score, userId, scores[at - 1], ids[at - 1])) {
+                at--;
+            }
+            if (at == ids.length) {
+                return;
+            }
+            int last = Math.min(found, ids.length - 1);
+            System.arraycopy(ids, at, ids, at + 1, last - at);
+            System.arraycopy(scores, at, scores, at + 1, last - at);
+            ids[at] = userId;
+            scores[at] = score;
+            found = Math.min(found + 1, ids.length);
+        }
+
+        boolean isEmpty() {
+            return found == 0;
+        }
+
+        Neighbors build() {
+            return new Neighbors(Arrays.copyOf(ids, found), Arrays.copyOf(scores, found));
+        }
+    }
+}
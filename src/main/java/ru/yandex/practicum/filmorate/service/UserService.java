@@ -0,0 +1,154 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.validation.Validator;
+import jakarta.validation.groups.Default;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.event.DomainEvent;
+import ru.yandex.practicum.filmorate.event.EventBus;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.metrics.ValidationMetrics;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserCreate;
+import ru.yandex.practicum.filmorate.storage.WriteResult;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.util.SortedLongArray;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UserService {
+    private final UserStorage userStorage;
+    private final Validator validator;
+    private final EventBus eventBus;
+
+    // правила, которых нет в аннотациях модели; общие для одиночных запросов и пакетов
+    public static void validate(User user) {
+        if (user.getName() == null || user.getName().isBlank()) { // имя может быть пустым -> заполняется логином
+            ValidationMetrics.BLANK_NAME_FILLED.increment();
+            user.setName(user.getLogin());
+        }
+    }
+
+    // записи проверяются параллельно, а в хранилище уходят одним пакетом; ошибки не прерывают остальные
+    public BatchResult createAll(List<User> batch) {
+        String[] errors = BatchValidation.validate(batch, validator, UserService::validate,
+                Default.class, UserCreate.class);
+        List<WriteResult<User>> created = userStorage.createAll(accepted(batch, errors));
+        List<BatchItemResult> items = new ArrayList<>(batch.size());
+        int next = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            if (errors[i] != null) {
+                items.add(BatchItemResult.rejected(i, errors[i]));
+                continue;
+            }
+            WriteResult<User> written = created.get(next++);
+            if (written.stored() != null) {
+                items.add(BatchItemResult.created(i, written.stored().getId()));
+                eventBus.publish(new DomainEvent.UserCreated(written.stored()));
+            } else {
+                items.add(BatchItemResult.conflict(i, written.conflict()));
+            }
+        }
+        BatchResult result = new BatchResult(items);
+        log.info("Пакетное добавление пользователей: принято {} из {}", result.getSucceeded(), batch.size());
+        return result;
+    }
+
+    public BatchResult updateAll(List<User> batch) {
+        String[] errors = BatchValidation.validate(batch, validator, user -> {
+            if (user.getId() == null) {
+                throw new ValidationException("Не указан id пользователя");
+            }
+            validate(user);
+        });
+        List<User> accepted = accepted(batch, errors);
+        List<WriteResult<User>> updated = userStorage.updateAll(accepted);
+        List<BatchItemResult> items = new ArrayList<>(batch.size());
+        int next = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            if (errors[i] != null) {
+                items.add(BatchItemResult.rejected(i, errors[i]));
+                continue;
+            }
+            Long id = accepted.get(next).getId();
+            WriteResult<User> written = updated.get(next++);
+            if (written.stored() != null) {
+                items.add(BatchItemResult.updated(i, id));
+                eventBus.publish(new DomainEvent.UserUpdated(written.stored()));
+            } else if (written.conflict() != null) {
+                items.add(BatchItemResult.conflict(i, written.conflict()));
+            } else {
+                items.add(BatchItemResult.notFound(i, id));
+            }
+        }
+        log.info("Пакетное обновление пользователей: {} записей", batch.size());
+        return new BatchResult(items);
+    }
+
+    // дружба взаимная: хранилище меняет оба ребра разом
+    public void addFriend(long userId, long friendId) {
+        checkUsers(userId, friendId);
+        userStorage.addFriendship(userId, friendId);
+        log.debug("Пользователи {} и {} теперь друзья", userId, friendId);
+    }
+
+    public void removeFriend(long userId, long friendId) {
+        checkUsers(userId, friendId);
+        userStorage.removeFriendship(userId, friendId);
+        log.debug("Пользователи {} и {} больше не друзья", userId, friendId);
+    }
+
+    public List<User> getFriends(long userId) {
+        getUser(userId);
+        return toUsers(userStorage.getFriendIds(userId));
+    }
+
+    // общие друзья пользователя с самим собой - все его друзья
+    public List<User> getCommonFriends(long userId, long otherId) {
+        if (userId == otherId) {
+            return getFriends(userId);
+        }
+        getUser(userId);
+        getUser(otherId);
+        return toUsers(userStorage.getFriendIds(userId).intersect(userStorage.getFriendIds(otherId)));
+    }
+
+    private static List<User> accepted(List<User> batch, String[] errors) {
+        List<User> accepted = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (errors[i] == null) {
+                accepted.add(batch.get(i));
+            }
+        }
+        return accepted;
+    }
+
+    private List<User> toUsers(SortedLongArray ids) {
+        List<User> result = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            userStorage.findById(ids.get(i)).ifPresent(result::add);
+        }
+        return result;
+    }
+
+    private void checkUsers(long userId, long otherId) {
+        if (userId == otherId) {
+            throw new ValidationException("Пользователь не может быть другом самому себе");
+        }
+        getUser(userId);
+        getUser(otherId);
+    }
+
+    private User getUser(long userId) {
+        return userStorage.findById(userId)
+                .orElseThrow(() -> new NotFoundException("Пользователь с id = " + userId + " не найден"));
+    }
+}
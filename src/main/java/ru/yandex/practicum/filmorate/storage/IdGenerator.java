@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.storage;
+
+// Источник id новых записей
+public interface IdGenerator {
+
+    long next();
+
+    // count возрастающих id, выданных одним шагом: id пакета не перемешиваются с id других запросов
+    long[] next(int count);
+
+    // при восстановлении с диска: следующие id будут больше уже назначенного
+    void advanceTo(long id);
+
+    // сколько id выдано, для метрик
+    long issued();
+}
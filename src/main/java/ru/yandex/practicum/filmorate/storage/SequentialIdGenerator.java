@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// id подряд с 1: подходит, пока все записи выдает один узел
+public class SequentialIdGenerator implements IdGenerator {
+    private final AtomicLong last = new AtomicLong();
+
+    @Override
+    public long next() {
+        return last.incrementAndGet();
+    }
+
+    @Override
+    public long[] next(int count) {
+        long first = last.getAndAdd(count) + 1;
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = first + i;
+        }
+        return ids;
+    }
+
+    @Override
+    public void advanceTo(long id) {
+        last.accumulateAndGet(id, Math::max);
+    }
+
+    @Override
+    public long issued() {
+        return last.get();
+    }
+}
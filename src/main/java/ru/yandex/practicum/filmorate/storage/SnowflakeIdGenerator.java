@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// id в духе Snowflake: миллисекунды от EPOCH (41 бит), номер узла (10 бит), счетчик в пределах миллисекунды (12 бит).
+// Узлы с разными номерами выдают непересекающиеся id без согласования между собой, id одного узла возрастают.
+// Если счетчик миллисекунды исчерпан или часы пошли назад, генератор не ждет, а занимает следующие миллисекунды
+public class SnowflakeIdGenerator implements IdGenerator {
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    // 2024-01-01T00:00:00Z
+    public static final long EPOCH = 1_704_067_200_000L;
+    public static final int MAX_NODE = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long node;
+    private final LongSupplier clock;
+    // последний выданный id без номера узла: миллисекунды << SEQUENCE_BITS | счетчик
+    private final AtomicLong last = new AtomicLong();
+    private final AtomicLong issued = new AtomicLong();
+
+    public SnowflakeIdGenerator(int node) {
+        this(node, System::currentTimeMillis);
+    }
+
+    public SnowflakeIdGenerator(int node, LongSupplier clock) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Номер узла должен быть от 0 до " + MAX_NODE + ": " + node);
+        }
+        this.node = node;
+        this.clock = clock;
+    }
+
+    @Override
+    public long next() {
+        return toId(reserve(1));
+    }
+
+    @Override
+    public long[] next(int count) {
+        long first = reserve(count);
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            // переполнение счетчика переходит в миллисекунды, поэтому id пакета возрастают
+            ids[i] = toId(first + i);
+        }
+        return ids;
+    }
+
+    @Override
+    public void advanceTo(long id) {
+        last.accumulateAndGet(id >>> (NODE_BITS + SEQUENCE_BITS) << SEQUENCE_BITS | id & SEQUENCE_MASK, Math::max);
+    }
+
+    @Override
+    public long issued() {
+        return issued.get();
+    }
+
+    public static int nodeOf(long id) {
+        return (int) (id >>> SEQUENCE_BITS) & MAX_NODE;
+    }
+
+    // первая из count подряд идущих меток
+    private long reserve(int count) {
+        long now = (clock.getAsLong() - EPOCH) << SEQUENCE_BITS;
+        while (true) {
+            long previous = last.get();
+            long first = Math.max(previous + 1, now);
+            if (last.compareAndSet(previous, first + count - 1)) {
+                issued.addAndGet(count);
+                return first;
+            }
+        }
+    }
+
+    private long toId(long stamp) {
+        return stamp >>> SEQUENCE_BITS << (NODE_BITS + SEQUENCE_BITS) | node << SEQUENCE_BITS | stamp & SEQUENCE_MASK;
+    }
+}
@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+// Набор блокировок, между которыми распределяются записи по id:
+// изменения одной записи идут строго по очереди, изменения разных записей - параллельно.
+// ReentrantLock, а не synchronized, чтобы не закреплять поток-носитель виртуальных потоков.
+public class StripedLocks {
+    private final ReentrantLock[] locks;
+
+    public StripedLocks(int stripes) {
+        locks = new ReentrantLock[Integer.highestOneBit(stripes - 1) << 1];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public ReentrantLock forId(long id) {
+        return locks[index(id)];
+    }
+
+    // блокировки двух записей в порядке номеров полос, чтобы встречные пары не ждали друг друга по кругу;
+    // если обе записи в одной полосе - одна блокировка
+    public ReentrantLock[] forIds(long first, long second) {
+        int a = index(first);
+        int b = index(second);
+        if (a == b) {
+            return new ReentrantLock[]{locks[a]};
+        }
+        return new ReentrantLock[]{locks[Math.min(a, b)], locks[Math.max(a, b)]};
+    }
+
+    private int index(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & (locks.length - 1);
+    }
+}
@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Сквозная нумерация изменений хранилища без блокировок.
+// Писатель получает версию, публикует запись и отмечает версию завершенной в кольце отметок.
+// Водяной знак stable - наибольшая версия, до которой включительно завершены все записи; его двигает вперед
+// любой завершивший запись поток, пока следующая версия отмечена. Читатель берет знак одним чтением и никого не ждет
+public class VersionClock {
+    // столько записей может быть начато сверх водяного знака; дальше новый писатель ждет отставший
+    private static final int WINDOW = 1 << 12;
+
+    private final AtomicLong last = new AtomicLong();
+    private final AtomicLong stable = new AtomicLong();
+    // в ячейке version & (WINDOW - 1) - номер завершенной записи; номер сверяется целиком, поэтому
+    // отметка прошлого круга не принимается за текущую
+    private final AtomicLongArray done = new AtomicLongArray(WINDOW);
+
+    // выдает версию изменения; запись должна стать видимой до endWrite(version)
+    public long beginWrite() {
+        long version = last.incrementAndGet();
+        // ячейку можно занять, только когда водяной знак прошел ее прошлый круг
+        while (version - stable.get() > WINDOW) {
+            Thread.onSpinWait();
+        }
+        return version;
+    }
+
+    public void endWrite(long version) {
+        // отметка и чтение знака - volatile: иначе два завершивших потока могли бы не увидеть отметки друг друга
+        // и оба не сдвинуть знак
+        done.set((int) version & (WINDOW - 1), version);
+        advance();
+    }
+
+    // последняя версия, все изменения до которой включительно уже видны
+    public long stable() {
+        return stable.get();
+    }
+
+    // при восстановлении с диска версии уже назначены; вызывается до начала записей
+    public void advanceTo(long version) {
+        last.accumulateAndGet(version, Math::max);
+        stable.accumulateAndGet(version, Math::max);
+    }
+
+    // версия для записи, которая становится видимой сразу (восстановление при старте)
+    public long next() {
+        long version = beginWrite();
+        endWrite(version);
+        return version;
+    }
+
+    private void advance() {
+        while (true) {
+            long current = stable.get();
+            long next = current + 1;
+            if (done.get((int) next & (WINDOW - 1)) != next) {
+                // следующая запись еще идет: знак сдвинет тот, кто ее завершит
+                return;
+            }
+            stable.compareAndSet(current, next);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.storage;
+
+// Итог записи одного элемента пакета: сохраненная запись или причина отказа; оба null - записи с таким id нет
+public record WriteResult<T>(T stored, String conflict) {
+
+    public static <T> WriteResult<T> stored(T stored) {
+        return new WriteResult<>(stored, null);
+    }
+
+    public static <T> WriteResult<T> conflict(String conflict) {
+        return new WriteResult<>(null, conflict);
+    }
+
+    public static <T> WriteResult<T> notFound() {
+        return new WriteResult<>(null, null);
+    }
+}
@@ -0,0 +1,265 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.util.StringDictionary;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Фильмы по столбцам в примитивных массивах, индекс строки - id: id выдаются подряд, поэтому массивы почти без дыр.
+// Строки хранятся кодами словаря, дата - номером дня, продолжительность - секундами и наносекундами.
+// Объект Film собирается только при чтении и живет, пока его отдают наружу.
+//
+// Столбец версий служит и замком последовательности: писатель ставит BUSY, пишет поля и публикует новую версию,
+// читатель повторяет чтение, если версия до и после чтения полей разная. Версии не повторяются,
+// поэтому совпадение версий означает, что поля не менялись.
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.film-layout", havingValue = "columnar")
+public class ColumnarFilmTable implements FilmTable {
+    private static final int PAGE_BITS = 14;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final VarHandle VERSIONS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final long EMPTY = 0;
+    private static final long BUSY = -1;
+    private static final int NO_STRING = -1;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int NO_DURATION = -1;
+
+    // страницы строк; каталог заменяется копией при добавлении страницы
+    private volatile Page[] pages = new Page[0];
+    private final ReentrantLock growLock = new ReentrantLock();
+    private final StringDictionary strings = new StringDictionary();
+    // наибольший id с записью: обход дальше не идет
+    private final AtomicLong maxId = new AtomicLong();
+
+    @Override
+    public Film get(long id) {
+        Page page = page(id);
+        if (page == null) {
+            return null;
+        }
+        int row = (int) (id & (PAGE_SIZE - 1));
+        while (true) {
+            long version = (long) VERSIONS.getAcquire(page.versions, row);
+            if (version == EMPTY) {
+                return null;
+            }
+            if (version == BUSY) {
+                Thread.onSpinWait();
+                continue;
+            }
+            int name = page.names[row];
+            int description = page.descriptions[row];
+            int releaseDay = page.releaseDays[row];
+            long durationSeconds = page.durationSeconds[row];
+            int durationNanos = page.durationNanos[row];
+            VarHandle.loadLoadFence();
+            if ((long) VERSIONS.getOpaque(page.versions, row) == version) {
+                // строки берем только из согласованного снимка полей: коды из него уже записаны в словарь
+                return new Film(id, decode(name), decode(description),
+                        releaseDay == NO_DATE ? null : LocalDate.ofEpochDay(releaseDay),
+                        durationNanos == NO_DURATION ? null : Duration.ofSeconds(durationSeconds, durationNanos),
+                        version);
+            }
+        }
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return version(id) != EMPTY;
+    }
+
+    @Override
+    public long version(long id) {
+        Page page = page(id);
+        if (page == null) {
+            return EMPTY;
+        }
+        int row = (int) (id & (PAGE_SIZE - 1));
+        long version = (long) VERSIONS.getAcquire(page.versions, row);
+        while (version == BUSY) {
+            Thread.onSpinWait();
+            version = (long) VERSIONS.getAcquire(page.versions, row);
+        }
+        return version;
+    }
+
+    // вызывается под блокировкой фильма: писатель у строки всегда один
+    @Override
+    public Film put(Film film) {
+        long id = film.getId();
+        // все преобразования до записи: если значение не помещается в столбец, строка остается прежней
+        int releaseDay = film.getReleaseDate() == null ? NO_DATE : releaseDay(film.getReleaseDate());
+        int name = encode(film.getName());
+        int description = encode(film.getDescription());
+        Duration duration = film.getDuration();
+
+        Page page = pageForWrite(id);
+        int row = (int) (id & (PAGE_SIZE - 1));
+        Film previous = page.versions[row] == EMPTY ? null : get(id);
+        VERSIONS.setOpaque(page.versions, row, BUSY);
+        VarHandle.storeStoreFence();
+        page.names[row] = name;
+        page.descriptions[row] = description;
+        page.releaseDays[row] = releaseDay;
+        page.durationSeconds[row] = duration == null ? 0 : duration.getSeconds();
+        page.durationNanos[row] = duration == null ? NO_DURATION : duration.getNano();
+        VERSIONS.setRelease(page.versions, row, film.getVersion());
+        maxId.accumulateAndGet(id, Math::max);
+        return previous;
+    }
+
+    // тоже под блокировкой фильма; строка остается занятой в странице, а строки словаря - в словаре
+    @Override
+    public Film remove(long id) {
+        Page page = page(id);
+        if (page == null) {
+            return null;
+        }
+        int row = (int) (id & (PAGE_SIZE - 1));
+        Film previous = page.versions[row] == EMPTY ? null : get(id);
+        VERSIONS.setRelease(page.versions, row, EMPTY);
+        return previous;
+    }
+
+    @Override
+    public Collection<Film> after(long afterId) {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Film> iterator() {
+                return new RowIterator(afterId);
+            }
+
+            // size() зовут поток коллекции и сериализатор: считаем занятые строки по столбцу версий, не собирая Film
+            @Override
+            public int size() {
+                return countAfter(afterId);
+            }
+        };
+    }
+
+    public StringDictionary strings() {
+        return strings;
+    }
+
+    private int countAfter(long afterId) {
+        Page[] current = pages;
+        long last = maxId.get();
+        int count = 0;
+        for (long id = Math.max(afterId, 0) + 1; id <= last; id++) {
+            long index = id >>> PAGE_BITS;
+            if (index >= current.length) {
+                break;
+            }
+            Page page = current[(int) index];
+            if (page == null) {
+                id |= PAGE_SIZE - 1;
+                continue;
+            }
+            if ((long) VERSIONS.getAcquire(page.versions, (int) (id & (PAGE_SIZE - 1))) != EMPTY) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private Page page(long id) {
+        Page[] current = pages;
+        long index = id >>> PAGE_BITS;
+        return id <= 0 || index >= current.length ? null : current[(int) index];
+    }
+
+    private Page pageForWrite(long id) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("id фильма должен быть положительным: " + id);
+        }
+        Page page = page(id);
+        if (page != null) {
+            return page;
+        }
+        growLock.lock();
+        try {
+            Page[] current = pages;
+            int index = Math.toIntExact(id >>> PAGE_BITS);
+            Page[] grown = index < current.length ? current.clone() : Arrays.copyOf(current, index + 1);
+            if (grown[index] == null) {
+                grown[index] = new Page();
+            }
+            pages = grown;
+            return grown[index];
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    private int encode(String value) {
+        return value == null ? NO_STRING : strings.encode(value);
+    }
+
+    private String decode(int code) {
+        return code == NO_STRING ? null : strings.decode(code);
+    }
+
+    private static int releaseDay(LocalDate date) {
+        long day = date.toEpochDay();
+        if (day <= NO_DATE || day > Integer.MAX_VALUE) {
+            throw new ValidationException("Дата релиза " + date + " вне поддерживаемого диапазона");
+        }
+        return (int) day;
+    }
+
+    // PAGE_SIZE строк по всем столбцам; 32 байта на фильм
+    private static final class Page {
+        final long[] versions = new long[PAGE_SIZE];
+        final int[] names = new int[PAGE_SIZE];
+        final int[] descriptions = new int[PAGE_SIZE];
+        final int[] releaseDays = new int[PAGE_SIZE];
+        final long[] durationSeconds = new long[PAGE_SIZE];
+        final int[] durationNanos = new int[PAGE_SIZE];
+    }
+
+    private final class RowIterator implements Iterator<Film> {
+        private long id;
+        private Film next;
+
+        RowIterator(long afterId) {
+            this.id = Math.max(afterId, 0);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && id < maxId.get()) {
+                id++;
+                if (page(id) == null) {
+                    // пустая страница пропускается целиком
+                    id = (id | (PAGE_SIZE - 1));
+                    continue;
+                }
+                next = get(id);
+            }
+            return next != null;
+        }
+
+        @Override
+        public Film next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Film result = next;
+            next = null;
+            return result;
+        }
+    }
+}
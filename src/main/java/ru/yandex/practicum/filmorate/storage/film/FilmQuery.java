@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+// Условия поиска фильмов; null - условие не задано. Результат - по возрастанию id после afterId
+public record FilmQuery(String text,
+                        LocalDate releasedFrom,
+                        LocalDate releasedTo,
+                        Duration minDuration,
+                        Duration maxDuration,
+                        long afterId,
+                        int limit) {
+
+    boolean hasReleaseRange() {
+        return releasedFrom != null || releasedTo != null;
+    }
+
+    boolean hasDurationRange() {
+        return minDuration != null || maxDuration != null;
+    }
+}
@@ -0,0 +1,300 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.StripedLocks;
+import ru.yandex.practicum.filmorate.util.SortedLongList;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+// Индексы для поиска фильмов: обратный индекс слов из названия и описания
+// и упорядоченные индексы по дате релиза и продолжительности.
+// Индекс только отбирает кандидатов: каждый найденный фильм перепроверяется по текущей записи,
+// поэтому короткое расхождение индекса с картой во время обновления не дает ложных результатов.
+class FilmSearchIndex {
+    // кандидатов из списка вхождений берем порциями, чтобы не копировать длинный список целиком
+    private static final int CHUNK = 1024;
+
+    private final FilmTable films;
+    private final IntSupplier filmCount;
+    // слово -> id фильмов, где оно встречается; список меняется и читается под блокировкой слова
+    private final Map<String, SortedLongList> postings = new ConcurrentHashMap<>();
+    private final StripedLocks termLocks = new StripedLocks(256);
+    private final ConcurrentSkipListSet<RangeKey> releaseDates = new ConcurrentSkipListSet<>();
+    private final ConcurrentSkipListSet<RangeKey> durations = new ConcurrentSkipListSet<>();
+
+    FilmSearchIndex(FilmTable films, IntSupplier filmCount) {
+        this.films = films;
+        this.filmCount = filmCount;
+    }
+
+    // вызывается под блокировкой фильма, поэтому обновления одного фильма не перемешиваются
+    void update(Film previous, Film current) {
+        long id = current.getId();
+        Set<String> before = previous == null ? Set.of() : tokens(previous);
+        Set<String> after = tokens(current);
+        for (String term : before) {
+            if (!after.contains(term)) {
+                removePosting(term, id);
+            }
+        }
+        for (String term : after) {
+            if (!before.contains(term)) {
+                addPosting(term, id);
+            }
+        }
+        RangeKey oldDate = previous == null ? null : dateKey(previous);
+        RangeKey oldDuration = previous == null ? null : durationKey(previous);
+        replace(releaseDates, oldDate, dateKey(current));
+        replace(durations, oldDuration, durationKey(current));
+    }
+
+    // фильм ушел из хранилища (переехал в другой шард); тоже под блокировкой фильма
+    void remove(Film previous) {
+        long id = previous.getId();
+        for (String term : tokens(previous)) {
+            removePosting(term, id);
+        }
+        replace(releaseDates, dateKey(previous), null);
+        replace(durations, durationKey(previous), null);
+    }
+
+    List<Film> search(FilmQuery query) {
+        Set<String> terms = tokens(query.text());
+        List<Film> result = new ArrayList<>(Math.min(query.limit(), CHUNK));
+        if (!terms.isEmpty()) {
+            searchByText(query, terms, result);
+        } else if (query.hasReleaseRange() || query.hasDurationRange()) {
+            searchByRange(query, result);
+        } else {
+            scanById(query, result);
+        }
+        return result;
+    }
+
+    private void searchByText(FilmQuery query, Set<String> terms, List<Film> result) {
+        // начинаем с самого редкого слова, остальные списки только проверяются бинарным поиском
+        String[] byRarity = terms.toArray(new String[0]);
+        int[] sizes = new int[byRarity.length];
+        for (int i = 0; i < byRarity.length; i++) {
+            sizes[i] = postingSize(byRarity[i]);
+            if (sizes[i] == 0) {
+                return;
+            }
+        }
+        Integer[] order = new Integer[byRarity.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> sizes[i]));
+
+        long[] chunk = new long[CHUNK];
+        long cursor = query.afterId();
+        while (result.size() < query.limit()) {
+            int count = copyAfter(byRarity[order[0]], cursor, chunk);
+            if (count == 0) {
+                return;
+            }
+            cursor = chunk[count - 1];
+            for (int i = 1; i < order.length && count > 0; i++) {
+                count = retain(byRarity[order[i]], chunk, count);
+            }
+            collect(query, terms, chunk, count, result);
+        }
+    }
+
+    private void searchByRange(FilmQuery query, List<Film> result) {
+        // диапазон обходится в порядке значений, а выдача нужна по id: узкий диапазон собираем и сортируем
+        NavigableSet<RangeKey> range = query.hasReleaseRange()
+                ? releaseDates.subSet(
+                        new RangeKey(query.releasedFrom() == null ? Long.MIN_VALUE : query.releasedFrom().toEpochDay(),
+                                Long.MIN_VALUE), true,
+                        new RangeKey(query.releasedTo() == null ? Long.MAX_VALUE : query.releasedTo().toEpochDay(),
+                                Long.MAX_VALUE), true)
+                : durations.subSet(
+                        new RangeKey(query.minDuration() == null ? Long.MIN_VALUE : query.minDuration().getSeconds(),
+                                Long.MIN_VALUE), true,
+                        new RangeKey(query.maxDuration() == null ? Long.MAX_VALUE : query.maxDuration().getSeconds(),
+                                Long.MAX_VALUE), true);
+        // обход по id с фильтром читает около limit * n / r фильмов, где r - размер диапазона, а сбор диапазона
+        // с сортировкой - все r. Диапазон выгоднее, пока r * r < limit * n: считаем его не дальше этой границы
+        long budget = (long) Math.sqrt((double) query.limit() * filmCount.getAsInt()) + query.limit();
+        long[] ids = new long[64];
+        int count = 0;
+        long walked = 0;
+        for (RangeKey key : range) {
+            if (++walked > budget) {
+                scanById(query, result);
+                return;
+            }
+            if (key.id() > query.afterId()) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                ids[count++] = key.id();
+            }
+        }
+        Arrays.sort(ids, 0, count);
+        collect(query, Set.of(), ids, count, result);
+    }
+
+    private void scanById(FilmQuery query, List<Film> result) {
+        for (Film film : films.after(query.afterId())) {
+            if (result.size() == query.limit()) {
+                return;
+            }
+            if (matches(film, query, Set.of())) {
+                result.add(film);
+            }
+        }
+    }
+
+    private void collect(FilmQuery query, Set<String> terms, long[] ids, int count, List<Film> result) {
+        for (int i = 0; i < count && result.size() < query.limit(); i++) {
+            Film film = films.get(ids[i]);
+            if (film != null && matches(film, query, terms)) {
+                result.add(film);
+            }
+        }
+    }
+
+    private static boolean matches(Film film, FilmQuery query, Set<String> terms) {
+        LocalDate date = film.getReleaseDate();
+        if (query.hasReleaseRange() && (date == null
+                || query.releasedFrom() != null && date.isBefore(query.releasedFrom())
+                || query.releasedTo() != null && date.isAfter(query.releasedTo()))) {
+            return false;
+        }
+        Duration duration = film.getDuration();
+        if (query.hasDurationRange() && (duration == null
+                || query.minDuration() != null && duration.compareTo(query.minDuration()) < 0
+                || query.maxDuration() != null && duration.compareTo(query.maxDuration()) > 0)) {
+            return false;
+        }
+        return terms.isEmpty() || tokens(film).containsAll(terms);
+    }
+
+    private void addPosting(String term, long id) {
+        ReentrantLock lock = termLocks.forId(term.hashCode());
+        lock.lock();
+        try {
+            postings.computeIfAbsent(term, t -> new SortedLongList()).add(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removePosting(String term, long id) {
+        ReentrantLock lock = termLocks.forId(term.hashCode());
+        lock.lock();
+        try {
+            SortedLongList ids = postings.get(term);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                postings.remove(term);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int postingSize(String term) {
+        ReentrantLock lock = termLocks.forId(term.hashCode());
+        lock.lock();
+        try {
+            SortedLongList ids = postings.get(term);
+            return ids == null ? 0 : ids.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int copyAfter(String term, long after, long[] target) {
+        ReentrantLock lock = termLocks.forId(term.hashCode());
+        lock.lock();
+        try {
+            SortedLongList ids = postings.get(term);
+            return ids == null ? 0 : ids.copyAfter(after, target);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int retain(String term, long[] candidates, int count) {
+        ReentrantLock lock = termLocks.forId(term.hashCode());
+        lock.lock();
+        try {
+            SortedLongList ids = postings.get(term);
+            return ids == null ? 0 : ids.retain(candidates, count);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void replace(ConcurrentSkipListSet<RangeKey> index, RangeKey before, RangeKey after) {
+        if (before != null && before.equals(after)) {
+            return;
+        }
+        if (after != null) {
+            index.add(after);
+        }
+        if (before != null) {
+            index.remove(before);
+        }
+    }
+
+    private static RangeKey dateKey(Film film) {
+        return film.getReleaseDate() == null ? null : new RangeKey(film.getReleaseDate().toEpochDay(), film.getId());
+    }
+
+    private static RangeKey durationKey(Film film) {
+        return film.getDuration() == null ? null : new RangeKey(film.getDuration().getSeconds(), film.getId());
+    }
+
+    private static Set<String> tokens(Film film) {
+        Set<String> tokens = tokens(film.getName());
+        tokens.addAll(tokens(film.getDescription()));
+        return tokens;
+    }
+
+    // слова - непрерывные последовательности букв и цифр без учета регистра, ё приравнивается к е
+    static Set<String> tokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // значение диапазонного индекса и id фильма, чтобы одинаковые значения не склеивались
+    private record RangeKey(long value, long id) implements Comparable<RangeKey> {
+        @Override
+        public int compareTo(RangeKey other) {
+            int byValue = Long.compare(value, other.value);
+            return byValue != 0 ? byValue : Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.util.SortedLongArray;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface FilmStorage {
+
+    Collection<Film> findAll();
+
+    // записи с id больше afterId в порядке возрастания id, без копирования
+    Collection<Film> findAfter(long afterId);
+
+    List<Film> findPage(long afterId, int limit);
+
+    Optional<Film> findById(long id);
+
+    // поиск по словам названия и описания и диапазонам даты релиза и продолжительности
+    List<Film> search(FilmQuery query);
+
+    // версия хранилища: все изменения с номером не больше нее уже видны
+    long version();
+
+    // записи, измененные после since и не позже upTo, в порядке версий; каждая запись - не более одного раза
+    List<Film> findChangedSince(long since, long upTo);
+
+    Film create(Film film);
+
+    Optional<Film> update(Film film);
+
+    // id для всего пакета резервируются одним шагом и идут подряд в порядке списка
+    List<Film> createAll(List<Film> batch);
+
+    // результат по позициям пакета; пустой, если записи с таким id нет
+    List<Optional<Film>> updateAll(List<Film> batch);
+
+    boolean addLike(long filmId, long userId);
+
+    boolean removeLike(long filmId, long userId);
+
+    long[] getLikes(long filmId);
+
+    // число лайков без копирования их множества
+    int likeCount(long filmId);
+
+    // фильмы, которые понравились пользователю; обратный индекс к getLikes
+    SortedLongArray getLikedFilms(long userId);
+
+    // по убыванию числа лайков, при равенстве - по id
+    List<Film> findPopular(int count);
+
+    // загрузка сохраненной записи при старте: id уже назначен, в журнал не пишется
+    void restore(Film film);
+
+    void restoreLike(long filmId, long userId, boolean liked);
+
+    int size();
+
+    // сколько id выдано, для метрик
+    long issuedIds();
+}
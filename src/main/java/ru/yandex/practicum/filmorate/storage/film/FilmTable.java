@@ -0,0 +1,27 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.Collection;
+
+// Записи фильмов по id. Запись заменяется только целиком и только под блокировкой фильма в хранилище,
+// читается без блокировок и никогда не видна наполовину обновленной
+public interface FilmTable {
+
+    // null, если записи нет
+    Film get(long id);
+
+    boolean contains(long id);
+
+    // версия текущей записи; 0, если записи нет
+    long version(long id);
+
+    // возвращает предыдущую запись или null
+    Film put(Film film);
+
+    // возвращает удаленную запись или null
+    Film remove(long id);
+
+    // записи с id больше afterId в порядке возрастания id; обход не блокирует запись и видит изменения по ходу
+    Collection<Film> after(long afterId);
+}
@@ -0,0 +1,405 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.IdGenerator;
+import ru.yandex.practicum.filmorate.storage.SequentialIdGenerator;
+import ru.yandex.practicum.filmorate.storage.StripedLocks;
+import ru.yandex.practicum.filmorate.storage.VersionClock;
+import ru.yandex.practicum.filmorate.storage.journal.Journal;
+import ru.yandex.practicum.filmorate.storage.journal.JournalEntry;
+import ru.yandex.practicum.filmorate.storage.journal.NoopJournal;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
+import ru.yandex.practicum.filmorate.util.SortedLongArray;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// все записи в одном хранилище; при filmorate.storage.sharding.enabled=true вместо него шардированное
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.sharding.enabled", havingValue = "false", matchIfMissing = true)
+public class InMemoryFilmStorage implements FilmStorage {
+    private final IdGenerator ids;
+    private final AtomicInteger size = new AtomicInteger();
+    // записи по id: объектами или по столбцам, см. filmorate.storage.film-layout
+    private final FilmTable films;
+    // id текущих записей по номеру версии; старая версия удаляется после появления новой
+    private final ConcurrentNavigableMap<Long, Long> byVersion = new ConcurrentSkipListMap<>();
+    private final VersionClock versions;
+    private final FilmSearchIndex searchIndex;
+    // id пользователей, поставивших лайк; меняются только под блокировкой фильма
+    private final Map<Long, LongHashSet> likes = new ConcurrentHashMap<>();
+    // обратный индекс: пользователь -> фильмы с его лайком; массив заменяется целиком, читается без блокировок
+    private final Map<Long, SortedLongArray> likedFilms = new ConcurrentHashMap<>();
+    // рейтинг всех фильмов, поддерживается при каждом лайке, а не сортируется при запросе
+    private final ConcurrentSkipListSet<Popularity> popular = new ConcurrentSkipListSet<>();
+    // изменение карты и запись в журнал идут под одной блокировкой, чтобы порядок в журнале совпадал с картой
+    private final StripedLocks locks = new StripedLocks(64);
+    private final Journal journal;
+
+    public InMemoryFilmStorage() {
+        this(new NoopJournal(), new ObjectFilmTable());
+    }
+
+    @Autowired
+    public InMemoryFilmStorage(Journal journal, FilmTable films) {
+        this(journal, films, new SequentialIdGenerator(), new VersionClock());
+    }
+
+    // шард: id и часы версий общие для всех шардов
+    public InMemoryFilmStorage(Journal journal, FilmTable films, IdGenerator ids, VersionClock versions) {
+        this.journal = journal;
+        this.films = films;
+        this.ids = ids;
+        this.versions = versions;
+        this.searchIndex = new FilmSearchIndex(films, size::get);
+    }
+
+    @Override
+    public Collection<Film> findAll() {
+        return films.after(0);
+    }
+
+    @Override
+    public Collection<Film> findAfter(long afterId) {
+        return films.after(afterId);
+    }
+
+    @Override
+    public List<Film> findPage(long afterId, int limit) {
+        // обходим итератором: поток по коллекции спросил бы size(), а это обход всей таблицы
+        List<Film> page = new ArrayList<>(Math.min(limit, size.get()));
+        Iterator<Film> iterator = films.after(afterId).iterator();
+        while (page.size() < limit && iterator.hasNext()) {
+            page.add(iterator.next());
+        }
+        return page;
+    }
+
+    @Override
+    public Optional<Film> findById(long id) {
+        return Optional.ofNullable(films.get(id));
+    }
+
+    @Override
+    public List<Film> search(FilmQuery query) {
+        return searchIndex.search(query);
+    }
+
+    @Override
+    public long version() {
+        return versions.stable();
+    }
+
+    @Override
+    public List<Film> findChangedSince(long since, long upTo) {
+        List<Film> changed = new ArrayList<>();
+        if (since > upTo) {
+            // метка не из этого хранилища (чужая, с опечаткой или до перезапуска без диска): отдаем все записи
+            since = 0;
+        }
+        for (Map.Entry<Long, Long> entry : byVersion.subMap(since, false, upTo, true).entrySet()) {
+            // запись, которую уже сменила более новая версия, попадет в выдачу под новой версией
+            Film film = films.get(entry.getValue());
+            if (film != null && film.getVersion().equals(entry.getKey())) {
+                changed.add(film);
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public Film create(Film film) {
+        return createWithId(ids.next(), film);
+    }
+
+    // id уже выдан: шардированное хранилище выбирает шард по id до записи
+    public Film createWithId(long id, Film film) {
+        // в хранилище кладем копию, чтобы вызывающий код не мог поменять сохраненный фильм
+        Film stored = copyOf(id, film);
+        insert(stored).join();
+        return stored;
+    }
+
+    @Override
+    public Optional<Film> update(Film film) {
+        if (film.getId() == null) {
+            return Optional.empty();
+        }
+        Film stored = copyOf(film.getId(), film);
+        CompletableFuture<Void> durable = replace(stored);
+        if (durable == null) {
+            return Optional.empty();
+        }
+        durable.join();
+        return Optional.of(stored);
+    }
+
+    @Override
+    public List<Film> createAll(List<Film> batch) {
+        return createAllWithIds(ids.next(batch.size()), batch);
+    }
+
+    public List<Film> createAllWithIds(long[] batchIds, List<Film> batch) {
+        List<Film> created = new ArrayList<>(batch.size());
+        CompletableFuture<?>[] durable = new CompletableFuture<?>[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            Film stored = copyOf(batchIds[i], batch.get(i));
+            durable[i] = insert(stored);
+            created.add(stored);
+        }
+        // ждем диск один раз на весь пакет: журнал запишет его групповой фиксацией
+        CompletableFuture.allOf(durable).join();
+        return created;
+    }
+
+    @Override
+    public List<Optional<Film>> updateAll(List<Film> batch) {
+        List<Optional<Film>> updated = new ArrayList<>(batch.size());
+        List<CompletableFuture<Void>> durable = new ArrayList<>(batch.size());
+        for (Film film : batch) {
+            Film stored = film.getId() == null ? null : copyOf(film.getId(), film);
+            CompletableFuture<Void> written = stored == null ? null : replace(stored);
+            if (written == null) {
+                updated.add(Optional.empty());
+            } else {
+                durable.add(written);
+                updated.add(Optional.of(stored));
+            }
+        }
+        CompletableFuture.allOf(durable.toArray(new CompletableFuture<?>[0])).join();
+        return updated;
+    }
+
+    @Override
+    public boolean addLike(long filmId, long userId) {
+        return changeLike(filmId, userId, true, true);
+    }
+
+    @Override
+    public boolean removeLike(long filmId, long userId) {
+        return changeLike(filmId, userId, false, true);
+    }
+
+    @Override
+    public long[] getLikes(long filmId) {
+        ReentrantLock lock = locks.forId(filmId);
+        lock.lock();
+        try {
+            LongHashSet filmLikes = likes.get(filmId);
+            return filmLikes == null ? new long[0] : filmLikes.toArray();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int likeCount(long filmId) {
+        ReentrantLock lock = locks.forId(filmId);
+        lock.lock();
+        try {
+            LongHashSet filmLikes = likes.get(filmId);
+            return filmLikes == null ? 0 : filmLikes.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public SortedLongArray getLikedFilms(long userId) {
+        return likedFilms.getOrDefault(userId, SortedLongArray.EMPTY);
+    }
+
+    @Override
+    public List<Film> findPopular(int count) {
+        // count приходит из запроса: больше фильмов, чем есть, не вернем
+        int expected = Math.min(count, size.get());
+        List<Film> result = new ArrayList<>(expected);
+        // фильм может на мгновение оказаться в рейтинге дважды, пока переезжает на новую позицию
+        LongHashSet seen = new LongHashSet(expected);
+        for (Popularity popularity : popular) {
+            if (result.size() == count) {
+                break;
+            }
+            Film film = films.get(popularity.filmId());
+            if (film != null && seen.add(popularity.filmId())) {
+                result.add(film);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void restore(Film film) {
+        // в старых файлах журнала версий нет: назначаем в порядке восстановления
+        if (film.getVersion() == null) {
+            film.setVersion(versions.next());
+        } else {
+            versions.advanceTo(film.getVersion());
+        }
+        Film previous = films.put(film);
+        byVersion.put(film.getVersion(), film.getId());
+        searchIndex.update(previous, film);
+        if (previous == null) {
+            popular.add(new Popularity(0, film.getId()));
+            size.incrementAndGet();
+        } else {
+            byVersion.remove(previous.getVersion(), previous.getId());
+        }
+        ids.advanceTo(film.getId());
+    }
+
+    @Override
+    public void restoreLike(long filmId, long userId, boolean liked) {
+        changeLike(filmId, userId, liked, false);
+    }
+
+    @Override
+    public int size() {
+        // size() у коллекции записей обходит их все, поэтому считаем сами
+        return size.get();
+    }
+
+    @Override
+    public long issuedIds() {
+        return ids.issued();
+    }
+
+    // фильм переезжает в другой шард: убирается вместе с лайками и индексами, в журнал не пишется
+    public Film evict(long id) {
+        ReentrantLock lock = locks.forId(id);
+        lock.lock();
+        try {
+            Film previous = films.remove(id);
+            if (previous == null) {
+                return null;
+            }
+            byVersion.remove(previous.getVersion(), id);
+            searchIndex.remove(previous);
+            LongHashSet filmLikes = likes.remove(id);
+            long[] users = filmLikes == null ? new long[0] : filmLikes.toArray();
+            popular.remove(new Popularity(users.length, id));
+            for (long userId : users) {
+                likedFilms.computeIfPresent(userId, (user, current) -> {
+                    SortedLongArray changed = current.without(id);
+                    return changed.isEmpty() ? null : changed;
+                });
+            }
+            size.decrementAndGet();
+            return previous;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean changeLike(long filmId, long userId, boolean liked, boolean journaled) {
+        CompletableFuture<Void> durable;
+        ReentrantLock lock = locks.forId(filmId);
+        lock.lock();
+        try {
+            if (!films.contains(filmId)) {
+                return false;
+            }
+            LongHashSet filmLikes = likes.computeIfAbsent(filmId, id -> new LongHashSet());
+            int before = filmLikes.size();
+            if (!(liked ? filmLikes.add(userId) : filmLikes.remove(userId))) {
+                return false;
+            }
+            // сначала новая позиция, потом удаление старой: читатель не потеряет фильм между ними
+            popular.add(new Popularity(filmLikes.size(), filmId));
+            popular.remove(new Popularity(before, filmId));
+            if (filmLikes.isEmpty()) {
+                likes.remove(filmId);
+            }
+            // лайки одного пользователя могут меняться под блокировками разных фильмов: меняем атомарно через compute
+            likedFilms.compute(userId, (id, current) -> {
+                SortedLongArray old = current == null ? SortedLongArray.EMPTY : current;
+                SortedLongArray changed = liked ? old.with(filmId) : old.without(filmId);
+                return changed.isEmpty() ? null : changed;
+            });
+            durable = journaled ? journal.append(liked
+                    ? new JournalEntry.LikeAdded(filmId, userId)
+                    : new JournalEntry.LikeRemoved(filmId, userId)) : null;
+        } finally {
+            lock.unlock();
+        }
+        if (durable != null) {
+            durable.join();
+        }
+        return true;
+    }
+
+    private CompletableFuture<Void> insert(Film stored) {
+        CompletableFuture<Void> durable;
+        ReentrantLock lock = locks.forId(stored.getId());
+        lock.lock();
+        try {
+            publish(stored);
+            popular.add(new Popularity(0, stored.getId()));
+            durable = journal.append(new JournalEntry.FilmSaved(stored));
+        } finally {
+            lock.unlock();
+        }
+        size.incrementAndGet();
+        return durable;
+    }
+
+    // null, если записи с таким id нет
+    private CompletableFuture<Void> replace(Film stored) {
+        ReentrantLock lock = locks.forId(stored.getId());
+        lock.lock();
+        try {
+            if (!films.contains(stored.getId())) {
+                return null;
+            }
+            // старый объект не меняем: подменяем его целиком новой записью
+            publish(stored);
+            return journal.append(new JournalEntry.FilmSaved(stored));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // вызывается под блокировкой записи: версия назначается и становится видимой до снятия отметки в часах
+    private void publish(Film stored) {
+        Film previous;
+        stored.setVersion(versions.beginWrite());
+        try {
+            previous = films.put(stored);
+            byVersion.put(stored.getVersion(), stored.getId());
+            if (previous != null) {
+                byVersion.remove(previous.getVersion());
+            }
+        } finally {
+            versions.endWrite(stored.getVersion());
+        }
+        // поисковые индексы обновляются уже вне часов версий, но еще под блокировкой фильма
+        searchIndex.update(previous, stored);
+    }
+
+    private static Film copyOf(long id, Film film) {
+        return new Film(id, film.getName(), film.getDescription(), film.getReleaseDate(), film.getDuration());
+    }
+
+    // порядок рейтинга: больше лайков - выше, при равенстве - по возрастанию id
+    private record Popularity(long likes, long filmId) implements Comparable<Popularity> {
+        @Override
+        public int compareTo(Popularity other) {
+            int byLikes = Long.compare(other.likes, likes);
+            return byLikes != 0 ? byLikes : Long.compare(filmId, other.filmId);
+        }
+    }
+}
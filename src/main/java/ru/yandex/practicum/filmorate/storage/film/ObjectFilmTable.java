@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Фильмы хранятся объектами Film: выдача без копирования, но около шести объектов на запись
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.film-layout", havingValue = "objects", matchIfMissing = true)
+public class ObjectFilmTable implements FilmTable {
+    // упорядочено по id, чтобы отдавать страницы по курсору без сортировки
+    private final ConcurrentNavigableMap<Long, Film> films = new ConcurrentSkipListMap<>();
+
+    @Override
+    public Film get(long id) {
+        return films.get(id);
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return films.containsKey(id);
+    }
+
+    @Override
+    public long version(long id) {
+        Film film = films.get(id);
+        return film == null ? 0 : film.getVersion();
+    }
+
+    @Override
+    public Film put(Film film) {
+        return films.put(film.getId(), film);
+    }
+
+    @Override
+    public Film remove(long id) {
+        return films.remove(id);
+    }
+
+    @Override
+    public Collection<Film> after(long afterId) {
+        return Collections.unmodifiableCollection(films.tailMap(afterId, false).values());
+    }
+}
@@ -0,0 +1,297 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Журнал предзаписи (WAL) на локальном диске и периодические снимки состояния.
+// Записи копятся в очереди и пишутся одним потоком пачками: один fsync на всю пачку (group commit).
+// Журнал разбит на сегменты; снимок помнит сегмент, с которого надо повторять журнал после загрузки снимка.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.persistence.enabled", havingValue = "true")
+public class FileJournal implements Journal {
+    private static final int WAL_MAGIC = 0x46574131; // "FWA1"
+    private static final int SNAPSHOT_MAGIC = 0x46534E31; // "FSN1"
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final String LOCK_FILE = "journal.lock";
+    private static final Pattern SEGMENT_FILE = Pattern.compile("wal-(\\d+)\\.log");
+    private static final int MAX_BATCH = 4096;
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+    private final Path dir;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final BlockingQueue<Pending> queue;
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final ReentrantReadWriteLock lifecycle = new ReentrantReadWriteLock();
+    private volatile boolean running;
+    private volatile long segment;
+    private Thread writerThread;
+    private RecordWriter writer;
+    private FileLock dirLock;
+
+    public FileJournal(@Value("${filmorate.persistence.dir:data}") Path dir,
+                       @Value("${filmorate.persistence.fsync:interval}") FsyncPolicy fsyncPolicy,
+                       @Value("${filmorate.persistence.fsync-interval-ms:200}") long fsyncIntervalMs,
+                       @Value("${filmorate.persistence.queue-capacity:65536}") int queueCapacity) {
+        this.dir = dir;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMs);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    // загружает снимок, повторяет хвост журнала и начинает новый сегмент для записи
+    public void open(Consumer<JournalEntry> replay) throws IOException {
+        Files.createDirectories(dir);
+        dirLock = FileChannel.open(dir.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE)
+                .tryLock();
+        if (dirLock == null) {
+            throw new IOException("Каталог " + dir.toAbsolutePath() + " уже используется другим процессом");
+        }
+        long last;
+        try {
+            last = replay(replay);
+        } catch (IOException | RuntimeException e) {
+            dirLock.channel().close();
+            throw e;
+        }
+        // в оборванный при падении сегмент не дописываем, а начинаем следующий
+        segment = last + 1;
+        writer = new RecordWriter(segmentFile(segment), WAL_MAGIC, segment);
+        writer.sync();
+        running = true;
+        writerThread = new Thread(this::writeLoop, "journal-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Журнал открыт в {}, запись в сегмент {}, fsync: {}", dir.toAbsolutePath(), segment, fsyncPolicy);
+    }
+
+    public boolean isOpen() {
+        return running;
+    }
+
+    @Override
+    public CompletableFuture<Void> append(JournalEntry entry) {
+        Pending pending = new Pending(entry, fsyncPolicy == FsyncPolicy.ALWAYS ? new CompletableFuture<>() : null);
+        enqueue(pending);
+        return pending.done != null ? pending.done : DONE;
+    }
+
+    // state должен отражать хранилища на момент после ротации: всё, что записано позже, повторится из журнала
+    public void snapshot(Stream<? extends JournalEntry> state) throws IOException {
+        snapshotLock.lock();
+        try {
+            Pending rotate = new Pending(null, new CompletableFuture<>());
+            enqueue(rotate);
+            rotate.done.join();
+            long from = segment;
+            Path target = dir.resolve(SNAPSHOT_FILE);
+            Path tmp = dir.resolve(SNAPSHOT_FILE + ".tmp");
+            long count = 0;
+            try (RecordWriter snapshotWriter = new RecordWriter(tmp, SNAPSHOT_MAGIC, from)) {
+                Iterator<? extends JournalEntry> iterator = state.iterator();
+                while (iterator.hasNext()) {
+                    snapshotWriter.write(iterator.next());
+                    count++;
+                }
+                snapshotWriter.sync();
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            for (long number : segments()) {
+                if (number < from) {
+                    Files.deleteIfExists(segmentFile(number));
+                }
+            }
+            log.info("Снимок записан: {} записей, журнал повторяется с сегмента {}", count, from);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        lifecycle.writeLock().lock();
+        try {
+            if (!running) {
+                return;
+            }
+            // после этого ни одна запись не попадёт в очередь, и писатель дочитает её до конца
+            running = false;
+        } finally {
+            lifecycle.writeLock().unlock();
+        }
+        writerThread.join();
+        // писатель мог выйти по прерыванию, не дописав очередь: ждущие подтверждения не должны висеть вечно
+        List<Pending> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        for (Pending pending : leftover) {
+            if (pending.done != null) {
+                pending.done.completeExceptionally(new IllegalStateException("Журнал закрыт до записи"));
+            }
+        }
+        writer.sync();
+        writer.close();
+        dirLock.channel().close();
+    }
+
+    // проверка и постановка в очередь атомарны относительно close(): иначе запись, поставленная после выхода
+    // писателя, потерялась бы, а её future не завершился бы никогда
+    private void enqueue(Pending pending) {
+        lifecycle.readLock().lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Журнал не открыт");
+            }
+            // очередь ограничена: если диск не успевает, писатели ждут здесь
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Запись в журнал прервана", e);
+        } finally {
+            lifecycle.readLock().unlock();
+        }
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(MAX_BATCH);
+        long lastSync = System.nanoTime();
+        boolean unsynced = false;
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    writeBatch(batch);
+                    unsynced = fsyncPolicy != FsyncPolicy.ALWAYS;
+                }
+                if (unsynced && fsyncPolicy == FsyncPolicy.INTERVAL
+                        && System.nanoTime() - lastSync >= fsyncIntervalNanos) {
+                    writer.sync();
+                    lastSync = System.nanoTime();
+                    unsynced = false;
+                }
+            } catch (IOException e) {
+                log.error("Ошибка записи журнала", e);
+                for (Pending pending : batch) {
+                    if (pending.done != null) {
+                        pending.done.completeExceptionally(new UncheckedIOException(e));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<Pending> batch) throws IOException {
+        for (Pending pending : batch) {
+            if (pending.entry != null) {
+                writer.write(pending.entry);
+            } else {
+                writer.sync();
+                writer.close();
+                writer = new RecordWriter(segmentFile(segment + 1), WAL_MAGIC, segment + 1);
+                segment++;
+            }
+        }
+        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+            writer.sync();
+        } else {
+            writer.flush();
+        }
+        for (Pending pending : batch) {
+            if (pending.done != null) {
+                pending.done.complete(null);
+            }
+        }
+    }
+
+    // загружает снимок и повторяет журнал; возвращает номер последнего сегмента
+    private long replay(Consumer<JournalEntry> replay) throws IOException {
+        long from = 0;
+        Path snapshot = dir.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshot)) {
+            from = RecordReader.readHeader(snapshot, SNAPSHOT_MAGIC);
+            if (RecordReader.read(snapshot, replay) < Files.size(snapshot)) {
+                throw new IOException("Снимок " + snapshot + " повреждён");
+            }
+        }
+        List<Long> segments = segments();
+        long last = segments.isEmpty() ? from - 1 : Math.max(from - 1, segments.get(segments.size() - 1));
+        for (long number : segments) {
+            if (number >= from) {
+                replaySegment(number, number == last, replay);
+            }
+        }
+        return last;
+    }
+
+    // оборваться при падении может только последний сегмент: его хвост отрезается, чтобы после следующего
+    // рестарта, когда сегмент уже не последний, он читался целиком. Порча в любом другом месте - потеря
+    // подтверждённых записей, и повторять журнал поверх дыры нельзя
+    private void replaySegment(long number, boolean last, Consumer<JournalEntry> replay) throws IOException {
+        Path file = segmentFile(number);
+        RecordReader.readHeader(file, WAL_MAGIC);
+        long valid = RecordReader.read(file, replay);
+        long size = Files.size(file);
+        if (valid == size) {
+            return;
+        }
+        if (!last) {
+            throw new IOException("Сегмент журнала " + file + " повреждён на позиции " + valid
+                    + ", следующие сегменты нельзя применить");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(valid);
+            channel.force(true);
+        }
+        log.warn("Оборванный хвост сегмента {} отрезан: {} байт", file, size - valid);
+    }
+
+    private List<Long> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> SEGMENT_FILE.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentFile(long number) {
+        return dir.resolve(String.format("wal-%010d.log", number));
+    }
+
+    // entry == null - служебная запись: закрыть текущий сегмент и начать следующий
+    private record Pending(JournalEntry entry, CompletableFuture<Void> done) {
+    }
+}
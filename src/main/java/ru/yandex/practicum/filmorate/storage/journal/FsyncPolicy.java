@@ -0,0 +1,10 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+public enum FsyncPolicy {
+    // ответ клиенту только после fsync пачки, в которую попала запись
+    ALWAYS,
+    // ответ сразу, fsync по таймеру: при падении ОС теряется не больше интервала
+    INTERVAL,
+    // ответ сразу, сброс на диск оставляем ОС
+    NEVER
+}
@@ -0,0 +1,10 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface Journal {
+
+    // не блокирует: ставит запись в очередь и возвращает future, которое завершится,
+    // когда запись станет надежной в соответствии с политикой fsync
+    CompletableFuture<Void> append(JournalEntry entry);
+}
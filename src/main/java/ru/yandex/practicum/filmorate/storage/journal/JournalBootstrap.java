@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Восстанавливает хранилища из снимка и журнала до старта веб-сервера и периодически пишет снимки
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.persistence.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class JournalBootstrap {
+    private final FileJournal journal;
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+
+    @PostConstruct
+    public void recover() throws IOException {
+        long start = System.nanoTime();
+        journal.open(this::apply);
+        log.info("Восстановлено фильмов: {}, пользователей: {} за {} мс", filmStorage.size(), userStorage.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @Scheduled(initialDelayString = "${filmorate.persistence.snapshot-interval-ms:600000}",
+            fixedDelayString = "${filmorate.persistence.snapshot-interval-ms:600000}")
+    public void snapshot() {
+        if (!journal.isOpen()) {
+            return;
+        }
+        try {
+            journal.snapshot(Stream.of(
+                    filmStorage.findAll().stream().map(JournalEntry.FilmSaved::new),
+                    userStorage.findAll().stream().map(JournalEntry.UserSaved::new),
+                    filmStorage.findAll().stream().flatMap(this::likes),
+                    userStorage.findAll().stream().flatMap(this::friends))
+                    .flatMap(entries -> entries));
+        } catch (IOException e) {
+            log.error("Не удалось записать снимок", e);
+        }
+    }
+
+    // при штатной остановке пишем снимок, чтобы следующий старт не повторял весь журнал
+    @PreDestroy
+    public void shutdown() {
+        snapshot();
+    }
+
+    private void apply(JournalEntry entry) {
+        if (entry instanceof JournalEntry.FilmSaved saved) {
+            filmStorage.restore(saved.film());
+        } else if (entry instanceof JournalEntry.UserSaved saved) {
+            userStorage.restore(saved.user());
+        } else if (entry instanceof JournalEntry.LikeAdded like) {
+            filmStorage.restoreLike(like.filmId(), like.userId(), true);
+        } else if (entry instanceof JournalEntry.LikeRemoved like) {
+            filmStorage.restoreLike(like.filmId(), like.userId(), false);
+        } else if (entry instanceof JournalEntry.FriendAdded friend) {
+            userStorage.restoreFriend(friend.userId(), friend.friendId(), true);
+        } else if (entry instanceof JournalEntry.FriendRemoved friend) {
+            userStorage.restoreFriend(friend.userId(), friend.friendId(), false);
+        } else if (entry instanceof JournalEntry.FriendshipAdded friendship) {
+            userStorage.restoreFriend(friendship.userId(), friendship.friendId(), true);
+            userStorage.restoreFriend(friendship.friendId(), friendship.userId(), true);
+        } else if (entry instanceof JournalEntry.FriendshipRemoved friendship) {
+            userStorage.restoreFriend(friendship.userId(), friendship.friendId(), false);
+            userStorage.restoreFriend(friendship.friendId(), friendship.userId(), false);
+        }
+    }
+
+    private Stream<JournalEntry> likes(Film film) {
+        return Arrays.stream(filmStorage.getLikes(film.getId()))
+                .mapToObj(userId -> new JournalEntry.LikeAdded(film.getId(), userId));
+    }
+
+    private Stream<JournalEntry> friends(User user) {
+        return Arrays.stream(userStorage.getFriendIds(user.getId()).toArray())
+                .mapToObj(friendId -> new JournalEntry.FriendAdded(user.getId(), friendId));
+    }
+}
@@ -0,0 +1,159 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+
+// Компактное двоичное представление событий журнала: тип события и поля фиксированного порядка
+final class JournalCodec {
+    private static final byte FILM_SAVED = 1;
+    private static final byte USER_SAVED = 2;
+    private static final byte LIKE_ADDED = 3;
+    private static final byte LIKE_REMOVED = 4;
+    private static final byte FRIEND_ADDED = 5;
+    private static final byte FRIEND_REMOVED = 6;
+    // записи с версией; типы 1 и 2 без версии остаются для чтения старых файлов
+    private static final byte FILM_SAVED_VERSIONED = 7;
+    private static final byte USER_SAVED_VERSIONED = 8;
+    private static final byte FRIENDSHIP_ADDED = 9;
+    private static final byte FRIENDSHIP_REMOVED = 10;
+
+    private JournalCodec() {
+    }
+
+    static void write(DataOutputStream out, JournalEntry entry) throws IOException {
+        if (entry instanceof JournalEntry.FilmSaved saved) {
+            Film film = saved.film();
+            out.writeByte(FILM_SAVED_VERSIONED);
+            out.writeLong(film.getId());
+            out.writeLong(film.getVersion());
+            writeString(out, film.getName());
+            writeString(out, film.getDescription());
+            writeDate(out, film.getReleaseDate());
+            writeDuration(out, film.getDuration());
+        } else if (entry instanceof JournalEntry.UserSaved saved) {
+            User user = saved.user();
+            out.writeByte(USER_SAVED_VERSIONED);
+            out.writeLong(user.getId());
+            out.writeLong(user.getVersion());
+            writeString(out, user.getEmail());
+            writeString(out, user.getLogin());
+            writeString(out, user.getName());
+            writeDate(out, user.getBirthday());
+        } else if (entry instanceof JournalEntry.LikeAdded like) {
+            out.writeByte(LIKE_ADDED);
+            out.writeLong(like.filmId());
+            out.writeLong(like.userId());
+        } else if (entry instanceof JournalEntry.LikeRemoved like) {
+            out.writeByte(LIKE_REMOVED);
+            out.writeLong(like.filmId());
+            out.writeLong(like.userId());
+        } else if (entry instanceof JournalEntry.FriendAdded friend) {
+            out.writeByte(FRIEND_ADDED);
+            out.writeLong(friend.userId());
+            out.writeLong(friend.friendId());
+        } else if (entry instanceof JournalEntry.FriendRemoved friend) {
+            out.writeByte(FRIEND_REMOVED);
+            out.writeLong(friend.userId());
+            out.writeLong(friend.friendId());
+        } else if (entry instanceof JournalEntry.FriendshipAdded friendship) {
+            out.writeByte(FRIENDSHIP_ADDED);
+            out.writeLong(friendship.userId());
+            out.writeLong(friendship.friendId());
+        } else if (entry instanceof JournalEntry.FriendshipRemoved friendship) {
+            out.writeByte(FRIENDSHIP_REMOVED);
+            out.writeLong(friendship.userId());
+            out.writeLong(friendship.friendId());
+        } else {
+            throw new IllegalArgumentException("Неизвестное событие журнала: " + entry);
+        }
+    }
+
+    static JournalEntry read(ByteBuffer in) {
+        byte type = in.get();
+        return switch (type) {
+            case FILM_SAVED -> new JournalEntry.FilmSaved(new Film(in.getLong(), readString(in), readString(in),
+                    readDate(in), readDuration(in)));
+            case USER_SAVED -> new JournalEntry.UserSaved(new User(in.getLong(), readString(in), readString(in),
+                    readString(in), readDate(in)));
+            case FILM_SAVED_VERSIONED -> new JournalEntry.FilmSaved(readVersioned(new Film(), in));
+            case USER_SAVED_VERSIONED -> new JournalEntry.UserSaved(readVersioned(new User(), in));
+            case LIKE_ADDED -> new JournalEntry.LikeAdded(in.getLong(), in.getLong());
+            case LIKE_REMOVED -> new JournalEntry.LikeRemoved(in.getLong(), in.getLong());
+            case FRIEND_ADDED -> new JournalEntry.FriendAdded(in.getLong(), in.getLong());
+            case FRIEND_REMOVED -> new JournalEntry.FriendRemoved(in.getLong(), in.getLong());
+            case FRIENDSHIP_ADDED -> new JournalEntry.FriendshipAdded(in.getLong(), in.getLong());
+            case FRIENDSHIP_REMOVED -> new JournalEntry.FriendshipRemoved(in.getLong(), in.getLong());
+            default -> throw new IllegalStateException("Неизвестный тип события журнала: " + type);
+        };
+    }
+
+    private static Film readVersioned(Film film, ByteBuffer in) {
+        film.setId(in.getLong());
+        film.setVersion(in.getLong());
+        film.setName(readString(in));
+        film.setDescription(readString(in));
+        film.setReleaseDate(readDate(in));
+        film.setDuration(readDuration(in));
+        return film;
+    }
+
+    private static User readVersioned(User user, ByteBuffer in) {
+        user.setId(in.getLong());
+        user.setVersion(in.getLong());
+        user.setEmail(readString(in));
+        user.setLogin(readString(in));
+        user.setName(readString(in));
+        user.setBirthday(readDate(in));
+        return user;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDate(DataOutputStream out, LocalDate date) throws IOException {
+        out.writeBoolean(date != null);
+        if (date != null) {
+            out.writeLong(date.toEpochDay());
+        }
+    }
+
+    private static LocalDate readDate(ByteBuffer in) {
+        return in.get() != 0 ? LocalDate.ofEpochDay(in.getLong()) : null;
+    }
+
+    private static void writeDuration(DataOutputStream out, Duration duration) throws IOException {
+        out.writeBoolean(duration != null);
+        if (duration != null) {
+            out.writeLong(duration.getSeconds());
+            out.writeInt(duration.getNano());
+        }
+    }
+
+    private static Duration readDuration(ByteBuffer in) {
+        return in.get() != 0 ? Duration.ofSeconds(in.getLong(), in.getInt()) : null;
+    }
+}
@@ -0,0 +1,34 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+// Событие, которое пишется в журнал и в снимок. Повторное применение события не меняет результат,
+// поэтому хвост журнала можно накатывать поверх снимка, снятого в любой момент после ротации.
+public interface JournalEntry {
+
+    record FilmSaved(Film film) implements JournalEntry {
+    }
+
+    record UserSaved(User user) implements JournalEntry {
+    }
+
+    record LikeAdded(long filmId, long userId) implements JournalEntry {
+    }
+
+    record LikeRemoved(long filmId, long userId) implements JournalEntry {
+    }
+
+    record FriendAdded(long userId, long friendId) implements JournalEntry {
+    }
+
+    record FriendRemoved(long userId, long friendId) implements JournalEntry {
+    }
+
+    // взаимная дружба одной записью: оба ребра появляются или пропадают вместе
+    record FriendshipAdded(long userId, long friendId) implements JournalEntry {
+    }
+
+    record FriendshipRemoved(long userId, long friendId) implements JournalEntry {
+    }
+}
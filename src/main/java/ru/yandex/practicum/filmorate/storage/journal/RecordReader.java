@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+// Читает файл журнала или снимка через отображение в память окнами до 1 ГБ
+@Slf4j
+final class RecordReader {
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    private static final long WINDOW = 1L << 30;
+
+    private RecordReader() {
+    }
+
+    // возвращает число из заголовка файла: для снимка - номер сегмента журнала, с которого начинать повтор
+    static long readHeader(Path path, int magic) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != magic || header.getInt() != FORMAT_VERSION) {
+                throw new IOException("Файл " + path + " не является файлом журнала или повреждён");
+            }
+            return header.getLong();
+        }
+    }
+
+    // возвращает конец последней целой записи: если он меньше размера файла, файл оборван или повреждён,
+    // а всё до этого места уже передано в consumer
+    static long read(Path path, Consumer<JournalEntry> consumer) throws IOException {
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = HEADER_SIZE;
+            while (position < size) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(WINDOW, size - position));
+                int consumed = 0;
+                while (buffer.remaining() - consumed >= 8) {
+                    int length = buffer.getInt(consumed);
+                    int checksum = buffer.getInt(consumed + 4);
+                    if (length <= 0 || position + consumed + 8 + length > size) {
+                        log.warn("Файл {} оборван на позиции {}", path, position + consumed);
+                        return position + consumed;
+                    }
+                    if (consumed + 8 + length > buffer.limit()) {
+                        break; // запись на границе окна: отобразим следующее окно с её начала
+                    }
+                    ByteBuffer record = buffer.slice(consumed + 8, length);
+                    crc.reset();
+                    crc.update(record.duplicate());
+                    if ((int) crc.getValue() != checksum) {
+                        log.warn("Неверная контрольная сумма в файле {} на позиции {}", path, position + consumed);
+                        return position + consumed;
+                    }
+                    consumer.accept(JournalCodec.read(record));
+                    consumed += 8 + length;
+                }
+                if (consumed == 0) {
+                    log.warn("Файл {} оборван на позиции {}", path, position);
+                    return position;
+                }
+                position += consumed;
+            }
+            return size;
+        }
+    }
+}
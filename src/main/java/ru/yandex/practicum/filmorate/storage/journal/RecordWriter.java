@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+// Пишет файл журнала или снимка: заголовок, затем записи вида [длина][crc32][событие]
+final class RecordWriter implements Closeable {
+    private final FileOutputStream file;
+    private final DataOutputStream out;
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+    private final CRC32 crc = new CRC32();
+    private final DataOutputStream recordOut = new DataOutputStream(new CheckedOutputStream(record, crc));
+
+    RecordWriter(Path path, int magic, long sequence) throws IOException {
+        file = new FileOutputStream(path.toFile());
+        out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16));
+        out.writeInt(magic);
+        out.writeInt(RecordReader.FORMAT_VERSION);
+        out.writeLong(sequence);
+    }
+
+    void write(JournalEntry entry) throws IOException {
+        record.reset();
+        crc.reset();
+        JournalCodec.write(recordOut, entry);
+        out.writeInt(record.size());
+        out.writeInt((int) crc.getValue());
+        record.writeTo(out);
+    }
+
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    void sync() throws IOException {
+        out.flush();
+        file.getChannel().force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,38 @@
+package ru.yandex.practicum.filmorate.storage.shard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+// выборка части пакета по позициям
+final class Batches {
+
+    private Batches() {
+    }
+
+    static long[] pick(long[] values, int[] positions) {
+        long[] picked = new long[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            picked[i] = values[positions[i]];
+        }
+        return picked;
+    }
+
+    static <T> List<T> pick(List<T> values, int[] positions) {
+        List<T> picked = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            picked.add(values.get(position));
+        }
+        return picked;
+    }
+
+    // id записей пакета; у записи без id - 0
+    static <T> long[] ids(List<T> batch, Function<T, Long> id) {
+        long[] ids = new long[batch.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Long value = id.apply(batch.get(i));
+            ids[i] = value == null ? 0 : value;
+        }
+        return ids;
+    }
+}
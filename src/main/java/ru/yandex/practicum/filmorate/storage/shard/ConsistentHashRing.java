@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.storage.shard;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+// Кольцо согласованного хеширования. У каждого шарда virtualNodes точек на кольце,
+// id принадлежит шарду первой точки не раньше хеша id. При добавлении шарда переезжают только id,
+// попавшие на его новые точки, - примерно 1/(N+1) записей; остальные остаются на месте.
+// Кольцо неизменяемое: новый шард дает новое кольцо
+public final class ConsistentHashRing {
+    private final int shards;
+    private final int virtualNodes;
+    // хеши точек по возрастанию и владельцы точек
+    private final long[] points;
+    private final int[] owners;
+
+    public ConsistentHashRing(int shards, int virtualNodes) {
+        if (shards < 1 || virtualNodes < 1) {
+            throw new IllegalArgumentException("Нужен хотя бы один шард и одна точка на шард");
+        }
+        this.shards = shards;
+        this.virtualNodes = virtualNodes;
+        int count = shards * virtualNodes;
+        long[] hashes = new long[count];
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            // точки шарда зависят только от его номера, поэтому у старых шардов они не меняются
+            hashes[i] = mix((long) (i / virtualNodes) << 32 | i % virtualNodes);
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> hashes[i]));
+        points = new long[count];
+        owners = new int[count];
+        for (int i = 0; i < count; i++) {
+            points[i] = hashes[order[i]];
+            owners[i] = order[i] / virtualNodes;
+        }
+    }
+
+    public int shardFor(long id) {
+        int index = Arrays.binarySearch(points, mix(id));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public int shards() {
+        return shards;
+    }
+
+    public ConsistentHashRing withShard() {
+        return new ConsistentHashRing(shards + 1, virtualNodes);
+    }
+
+    // финализатор SplitMix64: соседние id расходятся по всему кольцу
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
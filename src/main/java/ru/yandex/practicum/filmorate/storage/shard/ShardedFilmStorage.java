@@ -0,0 +1,236 @@
+package ru.yandex.practicum.filmorate.storage.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.IdGenerator;
+import ru.yandex.practicum.filmorate.storage.SnowflakeIdGenerator;
+import ru.yandex.practicum.filmorate.storage.VersionClock;
+import ru.yandex.practicum.filmorate.storage.film.FilmQuery;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.ObjectFilmTable;
+import ru.yandex.practicum.filmorate.storage.journal.Journal;
+import ru.yandex.practicum.filmorate.storage.journal.NoopJournal;
+import ru.yandex.practicum.filmorate.util.SortedLongArray;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+// Фильмы, распределенные по шардам кольцом согласованного хеширования по id.
+// Запрос по id идет в один шард, списки и поиск собираются со всех шардов слиянием упорядоченных ответов.
+// id выдает общий генератор Snowflake до выбора шарда, версии - общие часы, поэтому порядок id и версий
+// сквозной для всех шардов
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.sharding.enabled", havingValue = "true")
+public class ShardedFilmStorage implements FilmStorage {
+    private static final Comparator<Film> BY_ID = Comparator.comparing(Film::getId);
+    private static final Comparator<Film> BY_VERSION = Comparator.comparing(Film::getVersion);
+    private static final Comparator<Ranked> BY_RANK = Comparator.comparingInt(Ranked::likes).reversed()
+            .thenComparing(ranked -> ranked.film().getId());
+
+    private final Journal journal;
+    private final IdGenerator ids;
+    private final VersionClock versions = new VersionClock();
+    private final Topology<InMemoryFilmStorage> topology;
+
+    public ShardedFilmStorage(int shards, int nodeId) {
+        this(new NoopJournal(), shards, nodeId, 128, "objects");
+    }
+
+    @Autowired
+    public ShardedFilmStorage(Journal journal,
+                              @Value("${filmorate.storage.sharding.shards:4}") int shards,
+                              @Value("${filmorate.storage.sharding.node-id:0}") int nodeId,
+                              @Value("${filmorate.storage.sharding.virtual-nodes:128}") int virtualNodes,
+                              @Value("${filmorate.storage.film-layout:objects}") String layout) {
+        if (!"objects".equals(layout)) {
+            // строка столбцов адресуется id, а id Snowflake слишком велики и разрежены для этого
+            throw new IllegalStateException("Шардированное хранилище поддерживает только filmorate.storage.film-layout"
+                    + "=objects, задано " + layout);
+        }
+        this.journal = journal;
+        this.ids = new SnowflakeIdGenerator(nodeId);
+        List<InMemoryFilmStorage> nodes = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            nodes.add(newShard());
+        }
+        this.topology = new Topology<>(nodes, virtualNodes);
+        log.info("Фильмы распределены по {} шардам, узел {}", shards, nodeId);
+    }
+
+    @Override
+    public Collection<Film> findAll() {
+        return findAfter(0);
+    }
+
+    // обход идет уже без блокировки топологии: во время переноса записей он может пропустить переезжающий фильм
+    @Override
+    public Collection<Film> findAfter(long afterId) {
+        return SortedMerge.view(topology.onAll(shard -> shard.findAfter(afterId)), BY_ID);
+    }
+
+    @Override
+    public List<Film> findPage(long afterId, int limit) {
+        return SortedMerge.list(topology.onAll(shard -> shard.findPage(afterId, limit)), BY_ID, limit);
+    }
+
+    @Override
+    public Optional<Film> findById(long id) {
+        return topology.onShard(id, shard -> shard.findById(id));
+    }
+
+    @Override
+    public List<Film> search(FilmQuery query) {
+        return SortedMerge.list(topology.onAll(shard -> shard.search(query)), BY_ID, query.limit());
+    }
+
+    @Override
+    public long version() {
+        return versions.stable();
+    }
+
+    @Override
+    public List<Film> findChangedSince(long since, long upTo) {
+        return SortedMerge.list(topology.onAll(shard -> shard.findChangedSince(since, upTo)), BY_VERSION,
+                Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Film create(Film film) {
+        long id = ids.next();
+        return topology.onShard(id, shard -> shard.createWithId(id, film));
+    }
+
+    @Override
+    public Optional<Film> update(Film film) {
+        if (film.getId() == null) {
+            return Optional.empty();
+        }
+        return topology.onShard(film.getId(), shard -> shard.update(film));
+    }
+
+    @Override
+    public List<Film> createAll(List<Film> batch) {
+        long[] batchIds = ids.next(batch.size());
+        return topology.read(() -> topology.scatter(batchIds, (shard, positions) ->
+                shard.createAllWithIds(Batches.pick(batchIds, positions), Batches.pick(batch, positions))));
+    }
+
+    // запись без id уходит в произвольный шард и возвращается ненайденной
+    @Override
+    public List<Optional<Film>> updateAll(List<Film> batch) {
+        return topology.read(() -> topology.scatter(Batches.ids(batch, Film::getId), (shard, positions) ->
+                shard.updateAll(Batches.pick(batch, positions))));
+    }
+
+    @Override
+    public boolean addLike(long filmId, long userId) {
+        return topology.onShard(filmId, shard -> shard.addLike(filmId, userId));
+    }
+
+    @Override
+    public boolean removeLike(long filmId, long userId) {
+        return topology.onShard(filmId, shard -> shard.removeLike(filmId, userId));
+    }
+
+    @Override
+    public long[] getLikes(long filmId) {
+        return topology.onShard(filmId, shard -> shard.getLikes(filmId));
+    }
+
+    @Override
+    public int likeCount(long filmId) {
+        return topology.onShard(filmId, shard -> shard.likeCount(filmId));
+    }
+
+    // лайки пользователя лежат в шардах своих фильмов
+    @Override
+    public SortedLongArray getLikedFilms(long userId) {
+        List<SortedLongArray> parts = topology.onAll(shard -> shard.getLikedFilms(userId));
+        return SortedLongArray.of(parts.stream()
+                .flatMapToLong(part -> LongStream.of(part.toArray()))
+                .toArray());
+    }
+
+    // у каждого шарда свой рейтинг: берем из каждого первые count и сливаем
+    @Override
+    public List<Film> findPopular(int count) {
+        List<List<Ranked>> parts = topology.onAll(shard -> shard.findPopular(count).stream()
+                .map(film -> new Ranked(film, shard.likeCount(film.getId())))
+                .sorted(BY_RANK)
+                .toList());
+        return SortedMerge.list(parts, BY_RANK, count).stream()
+                .map(Ranked::film)
+                .toList();
+    }
+
+    // при восстановлении из журнала запись попадает в шард по текущему кольцу
+    @Override
+    public void restore(Film film) {
+        topology.onShard(film.getId(), shard -> {
+            shard.restore(film);
+            return null;
+        });
+    }
+
+    @Override
+    public void restoreLike(long filmId, long userId, boolean liked) {
+        topology.onShard(filmId, shard -> {
+            shard.restoreLike(filmId, userId, liked);
+            return null;
+        });
+    }
+
+    @Override
+    public int size() {
+        return topology.onAll(InMemoryFilmStorage::size).stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+
+    @Override
+    public long issuedIds() {
+        return ids.issued();
+    }
+
+    public List<Integer> shardSizes() {
+        return topology.onAll(InMemoryFilmStorage::size);
+    }
+
+    // добавляет пустой шард и переносит в него его долю фильмов вместе с лайками; возвращает число перенесенных.
+    // На время переноса запросы к фильмам ждут
+    public int addShard() {
+        int moved = topology.add(newShard(), (from, to, moving) -> {
+            int count = 0;
+            for (long id : from.findAll().stream().mapToLong(Film::getId).filter(moving).toArray()) {
+                Film film = from.findById(id).orElseThrow();
+                long[] likes = from.getLikes(id);
+                to.restore(film);
+                for (long userId : likes) {
+                    to.restoreLike(id, userId, true);
+                }
+                from.evict(id);
+                count++;
+            }
+            return count;
+        });
+        log.info("Добавлен шард фильмов, всего {}, перенесено {}", topology.shards().size(), moved);
+        return moved;
+    }
+
+    private InMemoryFilmStorage newShard() {
+        return new InMemoryFilmStorage(journal, new ObjectFilmTable(), ids, versions);
+    }
+
+    private record Ranked(Film film, int likes) {
+    }
+}
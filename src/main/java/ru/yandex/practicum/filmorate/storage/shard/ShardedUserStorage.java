@@ -0,0 +1,246 @@
+package ru.yandex.practicum.filmorate.storage.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.IdGenerator;
+import ru.yandex.practicum.filmorate.storage.SnowflakeIdGenerator;
+import ru.yandex.practicum.filmorate.storage.StripedLocks;
+import ru.yandex.practicum.filmorate.storage.VersionClock;
+import ru.yandex.practicum.filmorate.storage.WriteResult;
+import ru.yandex.practicum.filmorate.storage.journal.Journal;
+import ru.yandex.practicum.filmorate.storage.journal.JournalEntry;
+import ru.yandex.practicum.filmorate.storage.journal.NoopJournal;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserKeyIndex;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.util.SortedLongArray;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Пользователи, распределенные по шардам по id, как и фильмы в ShardedFilmStorage.
+// Почта и логин уникальны во всех шардах сразу: индекс ключей у шардов общий,
+// и поиск по почте или логину сначала узнает в нем id, а потом идет в один шард
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.sharding.enabled", havingValue = "true")
+public class ShardedUserStorage implements UserStorage {
+    private static final Comparator<User> BY_ID = Comparator.comparing(User::getId);
+    private static final Comparator<User> BY_VERSION = Comparator.comparing(User::getVersion);
+
+    private final Journal journal;
+    private final IdGenerator ids;
+    private final VersionClock versions = new VersionClock();
+    private final UserKeyIndex keys = new UserKeyIndex();
+    // блокировки пар для дружбы между шардами; берутся раньше блокировок шардов
+    private final StripedLocks friendshipLocks = new StripedLocks(64);
+    private final Topology<InMemoryUserStorage> topology;
+
+    public ShardedUserStorage(int shards, int nodeId) {
+        this(new NoopJournal(), shards, nodeId, 128);
+    }
+
+    @Autowired
+    public ShardedUserStorage(Journal journal,
+                              @Value("${filmorate.storage.sharding.shards:4}") int shards,
+                              @Value("${filmorate.storage.sharding.node-id:0}") int nodeId,
+                              @Value("${filmorate.storage.sharding.virtual-nodes:128}") int virtualNodes) {
+        this.journal = journal;
+        this.ids = new SnowflakeIdGenerator(nodeId);
+        List<InMemoryUserStorage> nodes = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            nodes.add(newShard());
+        }
+        this.topology = new Topology<>(nodes, virtualNodes);
+        log.info("Пользователи распределены по {} шардам, узел {}", shards, nodeId);
+    }
+
+    @Override
+    public Collection<User> findAll() {
+        return findAfter(0);
+    }
+
+    // обход идет уже без блокировки топологии: во время переноса записей он может пропустить переезжающую запись
+    @Override
+    public Collection<User> findAfter(long afterId) {
+        return SortedMerge.view(topology.onAll(shard -> shard.findAfter(afterId)), BY_ID);
+    }
+
+    @Override
+    public List<User> findPage(long afterId, int limit) {
+        return SortedMerge.list(topology.onAll(shard -> shard.findPage(afterId, limit)), BY_ID, limit);
+    }
+
+    @Override
+    public Optional<User> findById(long id) {
+        return topology.onShard(id, shard -> shard.findById(id));
+    }
+
+    @Override
+    public long version() {
+        return versions.stable();
+    }
+
+    @Override
+    public List<User> findChangedSince(long since, long upTo) {
+        return SortedMerge.list(topology.onAll(shard -> shard.findChangedSince(since, upTo)), BY_VERSION,
+                Integer.MAX_VALUE);
+    }
+
+    @Override
+    public User create(User user) {
+        long id = ids.next();
+        return topology.onShard(id, shard -> shard.createWithId(id, user));
+    }
+
+    @Override
+    public Optional<User> update(User user) {
+        if (user.getId() == null) {
+            return Optional.empty();
+        }
+        return topology.onShard(user.getId(), shard -> shard.update(user));
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        Long owner = keys.emailOwner(email);
+        return owner == null ? Optional.empty() : topology.onShard(owner, shard -> shard.findByEmail(email));
+    }
+
+    @Override
+    public Optional<User> findByLogin(String login) {
+        Long owner = keys.loginOwner(login);
+        return owner == null ? Optional.empty() : topology.onShard(owner, shard -> shard.findByLogin(login));
+    }
+
+    @Override
+    public List<WriteResult<User>> createAll(List<User> batch) {
+        long[] batchIds = ids.next(batch.size());
+        return topology.read(() -> topology.scatter(batchIds, (shard, positions) ->
+                shard.createAllWithIds(Batches.pick(batchIds, positions), Batches.pick(batch, positions))));
+    }
+
+    // запись без id уходит в произвольный шард и возвращается ненайденной
+    @Override
+    public List<WriteResult<User>> updateAll(List<User> batch) {
+        return topology.read(() -> topology.scatter(Batches.ids(batch, User::getId), (shard, positions) ->
+                shard.updateAll(Batches.pick(batch, positions))));
+    }
+
+    // ребро хранится у шарда своего пользователя, поэтому половины дружбы могут лежать в разных шардах;
+    // обе меняются под общими для всех шардов блокировками пары и пишутся в журнал одной записью
+    @Override
+    public boolean addFriendship(long userId, long friendId) {
+        return changeFriendship(userId, friendId, true);
+    }
+
+    @Override
+    public boolean removeFriendship(long userId, long friendId) {
+        return changeFriendship(userId, friendId, false);
+    }
+
+    @Override
+    public SortedLongArray getFriendIds(long userId) {
+        return topology.onShard(userId, shard -> shard.getFriendIds(userId));
+    }
+
+    // при восстановлении из журнала запись попадает в шард по текущему кольцу
+    @Override
+    public void restore(User user) {
+        topology.onShard(user.getId(), shard -> {
+            shard.restore(user);
+            return null;
+        });
+    }
+
+    @Override
+    public void restoreFriend(long userId, long friendId, boolean added) {
+        topology.onShard(userId, shard -> {
+            shard.restoreFriend(userId, friendId, added);
+            return null;
+        });
+    }
+
+    @Override
+    public int size() {
+        return topology.onAll(InMemoryUserStorage::size).stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+
+    @Override
+    public long issuedIds() {
+        return ids.issued();
+    }
+
+    public List<Integer> shardSizes() {
+        return topology.onAll(InMemoryUserStorage::size);
+    }
+
+    // добавляет пустой шард и переносит в него его долю пользователей вместе с друзьями; возвращает число
+    // перенесенных. Почта и логин в общем индексе не меняются. На время переноса запросы к пользователям ждут
+    public int addShard() {
+        int moved = topology.add(newShard(), (from, to, moving) -> {
+            int count = 0;
+            for (long id : from.findAll().stream().mapToLong(User::getId).filter(moving).toArray()) {
+                User user = from.findById(id).orElseThrow();
+                long[] friends = from.getFriendIds(id).toArray();
+                to.restore(user);
+                for (long friendId : friends) {
+                    to.restoreFriend(id, friendId, true);
+                }
+                from.evict(id);
+                count++;
+            }
+            return count;
+        });
+        log.info("Добавлен шард пользователей, всего {}, перенесено {}", topology.shards().size(), moved);
+        return moved;
+    }
+
+    private boolean changeFriendship(long userId, long friendId, boolean added) {
+        CompletableFuture<Void> durable = topology.read(() -> {
+            ReentrantLock[] pair = friendshipLocks.forIds(userId, friendId);
+            for (ReentrantLock lock : pair) {
+                lock.lock();
+            }
+            try {
+                InMemoryUserStorage user = topology.shardFor(userId);
+                InMemoryUserStorage friend = topology.shardFor(friendId);
+                if (user.findById(userId).isEmpty() || friend.findById(friendId).isEmpty()) {
+                    return null;
+                }
+                boolean changed = user.changeEdge(userId, friendId, added);
+                changed |= friend.changeEdge(friendId, userId, added);
+                if (!changed) {
+                    return null;
+                }
+                return journal.append(added
+                        ? new JournalEntry.FriendshipAdded(userId, friendId)
+                        : new JournalEntry.FriendshipRemoved(userId, friendId));
+            } finally {
+                for (int i = pair.length - 1; i >= 0; i--) {
+                    pair[i].unlock();
+                }
+            }
+        });
+        if (durable == null) {
+            return false;
+        }
+        durable.join();
+        return true;
+    }
+
+    private InMemoryUserStorage newShard() {
+        return new InMemoryUserStorage(journal, ids, versions, keys);
+    }
+}
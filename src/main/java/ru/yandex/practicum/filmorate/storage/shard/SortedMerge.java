@@ -0,0 +1,92 @@
+package ru.yandex.practicum.filmorate.storage.shard;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+// Слияние упорядоченных ответов шардов в один упорядоченный ответ.
+// Равные по порядку элементы подряд схлопываются в один
+final class SortedMerge {
+
+    private SortedMerge() {
+    }
+
+    // первые limit элементов
+    static <T> List<T> list(List<? extends Collection<T>> parts, Comparator<? super T> order, int limit) {
+        List<T> result = new ArrayList<>();
+        Iterator<T> merged = new MergingIterator<>(parts, order);
+        while (result.size() < limit && merged.hasNext()) {
+            result.add(merged.next());
+        }
+        return result;
+    }
+
+    // ленивое представление без копирования: шарды обходятся по мере чтения
+    static <T> Collection<T> view(List<? extends Collection<T>> parts, Comparator<? super T> order) {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<T> iterator() {
+                return new MergingIterator<>(parts, order);
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for (Collection<T> part : parts) {
+                    size += part.size();
+                }
+                return size;
+            }
+        };
+    }
+
+    private static final class MergingIterator<T> implements Iterator<T> {
+        private final Comparator<? super T> order;
+        private final PriorityQueue<Head<T>> heads;
+        private T last;
+        private T next;
+
+        MergingIterator(List<? extends Collection<T>> parts, Comparator<? super T> order) {
+            this.order = order;
+            this.heads = new PriorityQueue<>(Math.max(1, parts.size()), (a, b) -> order.compare(a.value, b.value));
+            for (Collection<T> part : parts) {
+                Iterator<T> iterator = part.iterator();
+                if (iterator.hasNext()) {
+                    heads.add(new Head<>(iterator.next(), iterator));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && !heads.isEmpty()) {
+                Head<T> head = heads.poll();
+                if (last == null || order.compare(last, head.value) != 0) {
+                    next = head.value;
+                }
+                if (head.rest.hasNext()) {
+                    heads.add(new Head<>(head.rest.next(), head.rest));
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = null;
+            return last;
+        }
+    }
+
+    private record Head<T>(T value, Iterator<T> rest) {
+    }
+}
@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.storage.shard;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
+
+// Шарды и кольцо, по которому между ними распределены id.
+// Запросы идут под общей (читающей) блокировкой, добавление шарда с переносом записей - под исключительной:
+// запрос не застает запись на полпути между шардами, но на время переноса все запросы ждут
+final class Topology<S> {
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile List<S> shards;
+    private volatile ConsistentHashRing ring;
+
+    Topology(List<S> shards, int virtualNodes) {
+        this.shards = List.copyOf(shards);
+        this.ring = new ConsistentHashRing(shards.size(), virtualNodes);
+    }
+
+    <R> R onShard(long id, Function<S, R> call) {
+        return read(() -> call.apply(shardFor(id)));
+    }
+
+    <R> List<R> onAll(Function<S, R> call) {
+        return read(() -> {
+            List<R> results = new ArrayList<>(shards.size());
+            for (S shard : shards) {
+                results.add(call.apply(shard));
+            }
+            return results;
+        });
+    }
+
+    // несколько обращений к шардам, которые должны видеть одно и то же распределение id
+    <R> R read(Supplier<R> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // вызывается внутри read
+    S shardFor(long id) {
+        return shards.get(ring.shardFor(id));
+    }
+
+    // пакет делится по шардам, каждая часть уходит одним вызовом; результат - в порядке пакета.
+    // Вызывается внутри read
+    <R> List<R> scatter(long[] ids, Part<S, R> call) {
+        List<S> current = shards;
+        int[] owners = new int[ids.length];
+        int[] counts = new int[current.size()];
+        for (int i = 0; i < ids.length; i++) {
+            owners[i] = ring.shardFor(ids[i]);
+            counts[owners[i]]++;
+        }
+        Object[] results = new Object[ids.length];
+        for (int s = 0; s < current.size(); s++) {
+            if (counts[s] == 0) {
+                continue;
+            }
+            int[] positions = new int[counts[s]];
+            for (int i = 0, filled = 0; i < ids.length; i++) {
+                if (owners[i] == s) {
+                    positions[filled++] = i;
+                }
+            }
+            List<R> part = call.apply(current.get(s), positions);
+            for (int i = 0; i < positions.length; i++) {
+                results[positions[i]] = part.get(i);
+            }
+        }
+        @SuppressWarnings("unchecked")
+        List<R> ordered = (List<R>) Arrays.asList(results);
+        return ordered;
+    }
+
+    List<S> shards() {
+        return shards;
+    }
+
+    // новый шард получает записи, которые новое кольцо отдает ему; возвращает число перенесенных записей
+    int add(S shard, Migration<S> migration) {
+        lock.writeLock().lock();
+        try {
+            ConsistentHashRing grown = ring.withShard();
+            int index = grown.shards() - 1;
+            int moved = 0;
+            for (S from : shards) {
+                moved += migration.move(from, shard, id -> grown.shardFor(id) == index);
+            }
+            List<S> next = new ArrayList<>(shards);
+            next.add(shard);
+            shards = List.copyOf(next);
+            ring = grown;
+            return moved;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @FunctionalInterface
+    interface Part<S, R> {
+        // результаты по порядку positions
+        List<R> apply(S shard, int[] positions);
+    }
+
+    @FunctionalInterface
+    interface Migration<S> {
+        // переносит из from в to записи, id которых проходят moving
+        int move(S from, S to, LongPredicate moving);
+    }
+}
@@ -0,0 +1,380 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.IdGenerator;
+import ru.yandex.practicum.filmorate.storage.SequentialIdGenerator;
+import ru.yandex.practicum.filmorate.storage.StripedLocks;
+import ru.yandex.practicum.filmorate.storage.VersionClock;
+import ru.yandex.practicum.filmorate.storage.WriteResult;
+import ru.yandex.practicum.filmorate.storage.journal.Journal;
+import ru.yandex.practicum.filmorate.storage.journal.JournalEntry;
+import ru.yandex.practicum.filmorate.storage.journal.NoopJournal;
+import ru.yandex.practicum.filmorate.util.SortedLongArray;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// все записи в одном хранилище; при filmorate.storage.sharding.enabled=true вместо него шардированное
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.sharding.enabled", havingValue = "false", matchIfMissing = true)
+public class InMemoryUserStorage implements UserStorage {
+    private final IdGenerator ids;
+    private final AtomicInteger size = new AtomicInteger();
+    // упорядочено по id, чтобы отдавать страницы по курсору без сортировки
+    private final ConcurrentNavigableMap<Long, User> users = new ConcurrentSkipListMap<>();
+    // текущие записи по номеру версии; старая версия удаляется после появления новой
+    private final ConcurrentNavigableMap<Long, User> byVersion = new ConcurrentSkipListMap<>();
+    private final VersionClock versions;
+    // id друзей в отсортированных массивах: пересечение списков - слияние массивов, без упаковки в Long
+    private final Map<Long, SortedLongArray> friends = new ConcurrentHashMap<>();
+    // уникальные почта и логин
+    private final UserKeyIndex keys;
+    // изменение карты и запись в журнал идут под одной блокировкой, чтобы порядок в журнале совпадал с картой
+    private final StripedLocks locks = new StripedLocks(64);
+    private final Journal journal;
+
+    public InMemoryUserStorage() {
+        this(new NoopJournal());
+    }
+
+    @Autowired
+    public InMemoryUserStorage(Journal journal) {
+        this(journal, new SequentialIdGenerator(), new VersionClock(), new UserKeyIndex());
+    }
+
+    // шард: id, часы версий и уникальные индексы общие для всех шардов
+    public InMemoryUserStorage(Journal journal, IdGenerator ids, VersionClock versions, UserKeyIndex keys) {
+        this.journal = journal;
+        this.ids = ids;
+        this.versions = versions;
+        this.keys = keys;
+    }
+
+    @Override
+    public Collection<User> findAll() {
+        return Collections.unmodifiableCollection(users.values());
+    }
+
+    @Override
+    public Collection<User> findAfter(long afterId) {
+        return Collections.unmodifiableCollection(users.tailMap(afterId, false).values());
+    }
+
+    @Override
+    public List<User> findPage(long afterId, int limit) {
+        return users.tailMap(afterId, false).values().stream()
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public Optional<User> findById(long id) {
+        return Optional.ofNullable(users.get(id));
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return findByKey(keys.emailOwner(email), email, User::getEmail);
+    }
+
+    @Override
+    public Optional<User> findByLogin(String login) {
+        return findByKey(keys.loginOwner(login), login, User::getLogin);
+    }
+
+    @Override
+    public long version() {
+        return versions.stable();
+    }
+
+    @Override
+    public List<User> findChangedSince(long since, long upTo) {
+        List<User> changed = new ArrayList<>();
+        if (since > upTo) {
+            // метка не из этого хранилища (чужая, с опечаткой или до перезапуска без диска): отдаем все записи
+            since = 0;
+        }
+        for (User user : byVersion.subMap(since, false, upTo, true).values()) {
+            // запись, которую уже сменила более новая версия, попадет в выдачу под новой версией
+            if (users.get(user.getId()) == user) {
+                changed.add(user);
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public User create(User user) {
+        return createWithId(ids.next(), user);
+    }
+
+    // id уже выдан: шардированное хранилище выбирает шард по id до записи
+    public User createWithId(long id, User user) {
+        // в хранилище кладем копию, чтобы вызывающий код не мог поменять сохраненного пользователя
+        User stored = copyOf(id, user);
+        insert(stored).join();
+        return stored;
+    }
+
+    @Override
+    public Optional<User> update(User user) {
+        if (user.getId() == null) {
+            return Optional.empty();
+        }
+        User stored = copyOf(user.getId(), user);
+        CompletableFuture<Void> durable = replace(stored);
+        if (durable == null) {
+            return Optional.empty();
+        }
+        durable.join();
+        return Optional.of(stored);
+    }
+
+    @Override
+    public List<WriteResult<User>> createAll(List<User> batch) {
+        return createAllWithIds(ids.next(batch.size()), batch);
+    }
+
+    public List<WriteResult<User>> createAllWithIds(long[] batchIds, List<User> batch) {
+        List<WriteResult<User>> created = new ArrayList<>(batch.size());
+        List<CompletableFuture<Void>> durable = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            User stored = copyOf(batchIds[i], batch.get(i));
+            try {
+                durable.add(insert(stored));
+                created.add(WriteResult.stored(stored));
+            } catch (DuplicatedDataException e) {
+                created.add(WriteResult.conflict(e.getMessage()));
+            }
+        }
+        // ждем диск один раз на весь пакет: журнал запишет его групповой фиксацией
+        CompletableFuture.allOf(durable.toArray(new CompletableFuture<?>[0])).join();
+        return created;
+    }
+
+    @Override
+    public List<WriteResult<User>> updateAll(List<User> batch) {
+        List<WriteResult<User>> updated = new ArrayList<>(batch.size());
+        List<CompletableFuture<Void>> durable = new ArrayList<>(batch.size());
+        for (User user : batch) {
+            User stored = user.getId() == null ? null : copyOf(user.getId(), user);
+            CompletableFuture<Void> written;
+            try {
+                written = stored == null ? null : replace(stored);
+            } catch (DuplicatedDataException e) {
+                updated.add(WriteResult.conflict(e.getMessage()));
+                continue;
+            }
+            if (written == null) {
+                updated.add(WriteResult.notFound());
+            } else {
+                durable.add(written);
+                updated.add(WriteResult.stored(stored));
+            }
+        }
+        CompletableFuture.allOf(durable.toArray(new CompletableFuture<?>[0])).join();
+        return updated;
+    }
+
+    @Override
+    public boolean addFriendship(long userId, long friendId) {
+        return changeFriendship(userId, friendId, true);
+    }
+
+    @Override
+    public boolean removeFriendship(long userId, long friendId) {
+        return changeFriendship(userId, friendId, false);
+    }
+
+    @Override
+    public SortedLongArray getFriendIds(long userId) {
+        return friends.getOrDefault(userId, SortedLongArray.EMPTY);
+    }
+
+    @Override
+    public void restore(User user) {
+        // в старых файлах журнала версий нет: назначаем в порядке восстановления
+        if (user.getVersion() == null) {
+            user.setVersion(versions.next());
+        } else {
+            versions.advanceTo(user.getVersion());
+        }
+        User previous = users.put(user.getId(), user);
+        byVersion.put(user.getVersion(), user);
+        if (previous != null) {
+            keys.release(previous, user);
+        }
+        keys.restore(user);
+        if (previous == null) {
+            size.incrementAndGet();
+        } else {
+            byVersion.remove(previous.getVersion(), previous);
+        }
+        ids.advanceTo(user.getId());
+    }
+
+    @Override
+    public void restoreFriend(long userId, long friendId, boolean added) {
+        changeEdge(userId, friendId, added);
+    }
+
+    // одно ребро без записи в журнал: шардированное хранилище меняет так половины дружбы в разных шардах
+    public boolean changeEdge(long userId, long friendId, boolean added) {
+        ReentrantLock lock = locks.forId(userId);
+        lock.lock();
+        try {
+            return users.containsKey(userId) && setEdge(userId, friendId, added);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        // size() у ConcurrentSkipListMap обходит всю карту, поэтому считаем сами
+        return size.get();
+    }
+
+    @Override
+    public long issuedIds() {
+        return ids.issued();
+    }
+
+    // запись переезжает в другой шард: убирается вместе с друзьями, в журнал не пишется.
+    // Почта и логин остаются за тем же id в общем индексе
+    public User evict(long id) {
+        ReentrantLock lock = locks.forId(id);
+        lock.lock();
+        try {
+            User previous = users.remove(id);
+            if (previous == null) {
+                return null;
+            }
+            byVersion.remove(previous.getVersion(), previous);
+            friends.remove(id);
+            size.decrementAndGet();
+            return previous;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean changeFriendship(long userId, long friendId, boolean added) {
+        CompletableFuture<Void> durable;
+        ReentrantLock[] pair = locks.forIds(userId, friendId);
+        for (ReentrantLock lock : pair) {
+            lock.lock();
+        }
+        try {
+            if (!users.containsKey(userId) || !users.containsKey(friendId)) {
+                return false;
+            }
+            // оба ребра всегда меняются вместе, поэтому они либо оба есть, либо обоих нет
+            boolean changed = setEdge(userId, friendId, added);
+            changed |= setEdge(friendId, userId, added);
+            if (!changed) {
+                return false;
+            }
+            durable = journal.append(added
+                    ? new JournalEntry.FriendshipAdded(userId, friendId)
+                    : new JournalEntry.FriendshipRemoved(userId, friendId));
+        } finally {
+            for (int i = pair.length - 1; i >= 0; i--) {
+                pair[i].unlock();
+            }
+        }
+        durable.join();
+        return true;
+    }
+
+    // вызывается под блокировкой userId
+    private boolean setEdge(long userId, long friendId, boolean added) {
+        SortedLongArray before = friends.getOrDefault(userId, SortedLongArray.EMPTY);
+        SortedLongArray after = added ? before.with(friendId) : before.without(friendId);
+        if (after == before) {
+            return false;
+        }
+        if (after.isEmpty()) {
+            friends.remove(userId);
+        } else {
+            friends.put(userId, after);
+        }
+        return true;
+    }
+
+    private CompletableFuture<Void> insert(User stored) {
+        CompletableFuture<Void> durable;
+        ReentrantLock lock = locks.forId(stored.getId());
+        lock.lock();
+        try {
+            keys.claim(stored);
+            publish(stored);
+            durable = journal.append(new JournalEntry.UserSaved(stored));
+        } finally {
+            lock.unlock();
+        }
+        size.incrementAndGet();
+        return durable;
+    }
+
+    // null, если записи с таким id нет
+    private CompletableFuture<Void> replace(User stored) {
+        ReentrantLock lock = locks.forId(stored.getId());
+        lock.lock();
+        try {
+            User previous = users.get(stored.getId());
+            if (previous == null) {
+                return null;
+            }
+            // новые значения занимаются до публикации, старые освобождаются после:
+            // в промежутке пользователь владеет обоими, но чужим их никто не отдаст
+            keys.claim(stored);
+            // старый объект не меняем: подменяем его целиком новой записью
+            publish(stored);
+            keys.release(previous, stored);
+            return journal.append(new JournalEntry.UserSaved(stored));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // вызывается под блокировкой записи: версия назначается и становится видимой до снятия отметки в часах
+    private void publish(User stored) {
+        stored.setVersion(versions.beginWrite());
+        try {
+            User previous = users.put(stored.getId(), stored);
+            byVersion.put(stored.getVersion(), stored);
+            if (previous != null) {
+                byVersion.remove(previous.getVersion());
+            }
+        } finally {
+            versions.endWrite(stored.getVersion());
+        }
+    }
+
+    // индекс может на мгновение указывать на пользователя, который как раз меняет это значение: сверяем с записью
+    private Optional<User> findByKey(Long id, String value, Function<User, String> field) {
+        String key = UserKeyIndex.normalize(value);
+        User user = id == null ? null : users.get(id);
+        return user != null && key.equals(UserKeyIndex.normalize(field.apply(user))) ? Optional.of(user) : Optional.empty();
+    }
+
+    private static User copyOf(long id, User user) {
+        return new User(id, user.getEmail(), user.getLogin(), user.getName(), user.getBirthday());
+    }
+}
@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Уникальные индексы: нормализованная почта и логин -> id владельца.
+// Ключ занимается через putIfAbsent до публикации записи и освобождается после, под блокировкой пользователя,
+// поэтому два пользователя не могут одновременно занять одно значение.
+// При шардировании индекс один на все шарды: уникальность не зависит от того, где лежит запись
+public class UserKeyIndex {
+    private final Map<String, Long> byEmail = new ConcurrentHashMap<>();
+    private final Map<String, Long> byLogin = new ConcurrentHashMap<>();
+
+    // при конфликте бросает исключение, ничего не заняв
+    public void claim(User user) {
+        long id = user.getId();
+        String email = normalize(user.getEmail());
+        boolean emailClaimed = false;
+        if (email != null) {
+            Long owner = byEmail.putIfAbsent(email, id);
+            if (owner != null && owner != id) {
+                throw new DuplicatedDataException("Пользователь с почтой " + user.getEmail() + " уже существует");
+            }
+            emailClaimed = owner == null;
+        }
+        String login = normalize(user.getLogin());
+        if (login != null) {
+            Long owner = byLogin.putIfAbsent(login, id);
+            if (owner != null && owner != id) {
+                if (emailClaimed) {
+                    byEmail.remove(email, id);
+                }
+                throw new DuplicatedDataException("Пользователь с логином " + user.getLogin() + " уже существует");
+            }
+        }
+    }
+
+    // освобождает значения, которые previous занимал, а current больше не использует
+    public void release(User previous, User current) {
+        long id = previous.getId();
+        String oldEmail = normalize(previous.getEmail());
+        if (oldEmail != null && !oldEmail.equals(normalize(current.getEmail()))) {
+            byEmail.remove(oldEmail, id);
+        }
+        String oldLogin = normalize(previous.getLogin());
+        if (oldLogin != null && !oldLogin.equals(normalize(current.getLogin()))) {
+            byLogin.remove(oldLogin, id);
+        }
+    }
+
+    // журнал содержит только допустимые состояния, поэтому при восстановлении ключи занимаются без проверки
+    public void restore(User user) {
+        put(byEmail, normalize(user.getEmail()), user.getId());
+        put(byLogin, normalize(user.getLogin()), user.getId());
+    }
+
+    // id владельца или null; владелец мог как раз сменить значение, поэтому результат сверяется с записью
+    public Long emailOwner(String email) {
+        String key = normalize(email);
+        return key == null ? null : byEmail.get(key);
+    }
+
+    public Long loginOwner(String login) {
+        String key = normalize(login);
+        return key == null ? null : byLogin.get(key);
+    }
+
+    public static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void put(Map<String, Long> index, String key, long id) {
+        if (key != null) {
+            index.put(key, id);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.WriteResult;
+import ru.yandex.practicum.filmorate.util.SortedLongArray;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface UserStorage {
+
+    Collection<User> findAll();
+
+    // записи с id больше afterId в порядке возрастания id, без копирования
+    Collection<User> findAfter(long afterId);
+
+    List<User> findPage(long afterId, int limit);
+
+    Optional<User> findById(long id);
+
+    // версия хранилища: все изменения с номером не больше нее уже видны
+    long version();
+
+    // записи, измененные после since и не позже upTo, в порядке версий; каждая запись - не более одного раза
+    List<User> findChangedSince(long since, long upTo);
+
+    // при занятой почте или логине - DuplicatedDataException
+    User create(User user);
+
+    Optional<User> update(User user);
+
+    // поиск по почте и логину без учета регистра
+    Optional<User> findByEmail(String email);
+
+    Optional<User> findByLogin(String login);
+
+    // id для всего пакета резервируются одним шагом и идут подряд в порядке списка;
+    // запись с занятой почтой или логином не сохраняется, ее id остается неиспользованным
+    List<WriteResult<User>> createAll(List<User> batch);
+
+    List<WriteResult<User>> updateAll(List<User> batch);
+
+    // дружба взаимная: оба ребра меняются одной операцией под блокировками обоих пользователей
+    // и пишутся в журнал одной записью; false, если пользователя нет или ничего не изменилось
+    boolean addFriendship(long userId, long friendId);
+
+    boolean removeFriendship(long userId, long friendId);
+
+    SortedLongArray getFriendIds(long userId);
+
+    // загрузка сохраненной записи при старте: id уже назначен, в журнал не пишется
+    void restore(User user);
+
+    // одно направленное ребро: снимок и старые файлы журнала хранят ребра по отдельности
+    void restoreFriend(long userId, long friendId, boolean added);
+
+    int size();
+
+    // сколько id выдано, для метрик
+    long issuedIds();
+}
@@ -0,0 +1,151 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.Arrays;
+
+// Множество примитивных long на открытой адресации: один массив вместо объекта Long и узла на каждый элемент.
+// Не потокобезопасно, синхронизация - на стороне владельца.
+public class LongHashSet {
+    private long[] keys;
+    private int mask;
+    private int resizeAt;
+    private int size;
+    // 0 служит маркером пустой ячейки, поэтому сам 0 хранится отдельно
+    private boolean hasZero;
+
+    public LongHashSet() {
+        this(4);
+    }
+
+    public LongHashSet(int expectedSize) {
+        allocate(Integer.highestOneBit(Math.max(4, expectedSize * 3 / 2)) << 1);
+    }
+
+    public boolean add(long key) {
+        if (key == 0) {
+            if (hasZero) {
+                return false;
+            }
+            hasZero = true;
+            size++;
+            return true;
+        }
+        int i = slot(key);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        if (++size >= resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(long key) {
+        if (key == 0) {
+            return hasZero;
+        }
+        int i = slot(key);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    public boolean remove(long key) {
+        if (key == 0) {
+            if (!hasZero) {
+                return false;
+            }
+            hasZero = false;
+            size--;
+            return true;
+        }
+        int i = slot(key);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                closeGap(i);
+                size--;
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long[] toArray() {
+        long[] result = new long[size];
+        int n = 0;
+        if (hasZero) {
+            result[n++] = 0;
+        }
+        for (long key : keys) {
+            if (key != 0) {
+                result[n++] = key;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    // удаление без "надгробий": сдвигаем назад элементы цепочки, которые могут занять освободившуюся ячейку
+    private void closeGap(int gap) {
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            long key = keys[i];
+            if (key == 0) {
+                break;
+            }
+            int home = slot(key);
+            boolean staysInPlace = gap <= i ? gap < home && home <= i : gap < home || home <= i;
+            if (!staysInPlace) {
+                keys[gap] = key;
+                gap = i;
+            }
+        }
+        keys[gap] = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = keys;
+        allocate(capacity);
+        for (long key : old) {
+            if (key != 0) {
+                int i = slot(key);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity * 2 / 3;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
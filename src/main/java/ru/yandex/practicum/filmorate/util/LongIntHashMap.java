@@ -0,0 +1,128 @@
+package ru.yandex.practicum.filmorate.util;
+
+// Счетчики по ключу long на открытой адресации, без упаковки ключей и значений.
+// Не потокобезопасно, синхронизация - на стороне владельца.
+public class LongIntHashMap {
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int resizeAt;
+    private int size;
+    // 0 служит маркером пустой ячейки, поэтому значение для ключа 0 хранится отдельно
+    private boolean hasZero;
+    private int zeroValue;
+
+    public LongIntHashMap() {
+        this(4);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        allocate(Integer.highestOneBit(Math.max(4, expectedSize * 3 / 2)) << 1);
+    }
+
+    // прибавляет delta к значению ключа (отсутствующий ключ считается нулем) и возвращает новое значение
+    public int add(long key, int delta) {
+        if (key == 0) {
+            if (!hasZero) {
+                hasZero = true;
+                size++;
+            }
+            zeroValue += delta;
+            return zeroValue;
+        }
+        int i = slot(key);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                values[i] += delta;
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = delta;
+        if (++size >= resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return delta;
+    }
+
+    public int get(long key) {
+        if (key == 0) {
+            return hasZero ? zeroValue : 0;
+        }
+        int i = slot(key);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return 0;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == 0) {
+            return hasZero;
+        }
+        int i = slot(key);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        if (hasZero) {
+            consumer.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != 0) {
+                int i = slot(oldKeys[j]);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity * 2 / 3;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, int value);
+    }
+}
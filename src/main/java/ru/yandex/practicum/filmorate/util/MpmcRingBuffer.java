@@ -0,0 +1,85 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Ограниченная очередь без блокировок для многих писателей и читателей (схема Вьюкова).
+// У каждой ячейки свой номер круга: писатель занимает позицию CAS-ом на хвосте и публикует элемент,
+// выставляя номер ячейки; читатель забирает ячейку, только когда номер показывает, что элемент уже записан.
+// Переполненная очередь не ждет: offer возвращает false.
+public class MpmcRingBuffer<E> {
+    private final AtomicLongArray sequences;
+    private final AtomicReferenceArray<E> elements;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    public MpmcRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        sequences = new AtomicLongArray(size);
+        elements = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.getAcquire(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.setPlain(index, element);
+                    sequences.setRelease(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // ячейку прошлого круга еще не забрали: очередь полна
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    // null, если очередь пуста
+    public E poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.getAcquire(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = elements.getPlain(index);
+                    elements.setPlain(index, null);
+                    // ячейка свободна для писателя следующего круга
+                    sequences.setRelease(index, position + mask + 1);
+                    return element;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    // приблизительно: хвост и голова читаются не одновременно
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,116 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.Arrays;
+
+// Неизменяемое отсортированное множество long на одном массиве.
+// Изменение возвращает новый экземпляр, поэтому читать можно без блокировок.
+public final class SortedLongArray {
+    public static final SortedLongArray EMPTY = new SortedLongArray(new long[0]);
+    // во сколько раз одно множество должно быть больше другого, чтобы вместо слияния искать двоичным поиском
+    private static final int GALLOP_RATIO = 16;
+
+    private final long[] values;
+
+    private SortedLongArray(long[] values) {
+        this.values = values;
+    }
+
+    public static SortedLongArray of(long... values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[n++] = sorted[i];
+            }
+        }
+        return n == 0 ? EMPTY : new SortedLongArray(Arrays.copyOf(sorted, n));
+    }
+
+    public SortedLongArray with(long value) {
+        int index = Arrays.binarySearch(values, value);
+        if (index >= 0) {
+            return this;
+        }
+        int insertAt = -index - 1;
+        long[] result = new long[values.length + 1];
+        System.arraycopy(values, 0, result, 0, insertAt);
+        result[insertAt] = value;
+        System.arraycopy(values, insertAt, result, insertAt + 1, values.length - insertAt);
+        return new SortedLongArray(result);
+    }
+
+    public SortedLongArray without(long value) {
+        int index = Arrays.binarySearch(values, value);
+        if (index < 0) {
+            return this;
+        }
+        if (values.length == 1) {
+            return EMPTY;
+        }
+        long[] result = new long[values.length - 1];
+        System.arraycopy(values, 0, result, 0, index);
+        System.arraycopy(values, index + 1, result, index, values.length - index - 1);
+        return new SortedLongArray(result);
+    }
+
+    public boolean contains(long value) {
+        return Arrays.binarySearch(values, value) >= 0;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    public long get(int index) {
+        return values[index];
+    }
+
+    public long[] toArray() {
+        return values.clone();
+    }
+
+    // пересечение слиянием за O(n + m) или, если размеры сильно различаются, поиском за O(n log m)
+    public SortedLongArray intersect(SortedLongArray other) {
+        long[] small = values.length <= other.values.length ? values : other.values;
+        long[] large = small == values ? other.values : values;
+        long[] result = new long[small.length];
+        int n = 0;
+        if ((long) small.length * GALLOP_RATIO < large.length) {
+            int from = 0;
+            for (long value : small) {
+                int index = Arrays.binarySearch(large, from, large.length, value);
+                if (index >= 0) {
+                    result[n++] = value;
+                    from = index + 1;
+                } else {
+                    from = -index - 1;
+                }
+            }
+        } else {
+            int i = 0;
+            int j = 0;
+            while (i < small.length && j < large.length) {
+                if (small[i] < large[j]) {
+                    i++;
+                } else if (small[i] > large[j]) {
+                    j++;
+                } else {
+                    result[n++] = small[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return n == 0 ? EMPTY : new SortedLongArray(n == result.length ? result : Arrays.copyOf(result, n));
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.Arrays;
+
+// Изменяемый упорядоченный список различных long в одном массиве: 8 байт на элемент.
+// Рассчитан на добавление в основном по возрастанию - тогда это дописывание в конец.
+// Не потокобезопасно, синхронизация - на стороне владельца.
+public class SortedLongList {
+    private long[] values;
+    private int size;
+
+    public SortedLongList() {
+        values = new long[4];
+    }
+
+    public boolean add(long value) {
+        int i = size == 0 || values[size - 1] < value ? -size - 1 : Arrays.binarySearch(values, 0, size, value);
+        if (i >= 0) {
+            return false;
+        }
+        int at = -i - 1;
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        System.arraycopy(values, at, values, at + 1, size - at);
+        values[at] = value;
+        size++;
+        return true;
+    }
+
+    public boolean remove(long value) {
+        int i = Arrays.binarySearch(values, 0, size, value);
+        if (i < 0) {
+            return false;
+        }
+        System.arraycopy(values, i + 1, values, i, size - i - 1);
+        size--;
+        // после массового удаления отдаем лишнюю память
+        if (values.length > 16 && size < values.length / 4) {
+            values = Arrays.copyOf(values, values.length / 2);
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // копирует в target значения строго больше after; возвращает число скопированных
+    public int copyAfter(long after, long[] target) {
+        int from = Arrays.binarySearch(values, 0, size, after);
+        from = from >= 0 ? from + 1 : -from - 1;
+        int count = Math.min(target.length, size - from);
+        System.arraycopy(values, from, target, 0, count);
+        return count;
+    }
+
+    // оставляет в первых count элементах candidates только содержащиеся в списке; возвращает их число
+    public int retain(long[] candidates, int count) {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (contains(candidates[i])) {
+                candidates[kept++] = candidates[i];
+            }
+        }
+        return kept;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(Arrays.copyOf(values, size));
+    }
+}
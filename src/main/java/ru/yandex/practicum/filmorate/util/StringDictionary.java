@@ -0,0 +1,127 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Словарь строк: одинаковые строки получают один код, а сами строки лежат байтами UTF-8 в общих блоках,
+// без объекта String и отдельного массива на каждую.
+// Добавление идет под блокировкой, чтение по коду - без нее: код попадает к читателю только после того,
+// как строка записана. Словарь только растет, строки, на которые больше никто не ссылается, не удаляются.
+public class StringDictionary {
+    private static final int BLOCK_SIZE = 1 << 20;
+    private static final int PAGE_BITS = 14;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // блоки с байтами строк; массивы заменяются копией при росте, поэтому читатель всегда видит полный
+    private volatile byte[][] blocks = new byte[0][];
+    // по коду: номер блока и смещение в одном long, длина в байтах; страницы по PAGE_SIZE кодов
+    private volatile long[][] positions = new long[0][];
+    private volatile int[][] lengths = new int[0][];
+    // открытая адресация: хэш строки -> код + 1, 0 - пустая ячейка
+    private int[] table = new int[1 << 10];
+    private int[] hashes = new int[1 << 10];
+    private int size;
+    private int blockUsed;
+
+    public int encode(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int hash = Arrays.hashCode(bytes);
+        lock.lock();
+        try {
+            int mask = table.length - 1;
+            int i = spread(hash) & mask;
+            while (table[i] != 0) {
+                int code = table[i] - 1;
+                if (hashes[code] == hash && equals(code, bytes)) {
+                    return code;
+                }
+                i = (i + 1) & mask;
+            }
+            int code = append(bytes, hash);
+            table[i] = code + 1;
+            if (size * 3 >= table.length * 2) {
+                rehash(table.length << 1);
+            }
+            return code;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String decode(int code) {
+        long position = positions[code >>> PAGE_BITS][code & (PAGE_SIZE - 1)];
+        int length = lengths[code >>> PAGE_BITS][code & (PAGE_SIZE - 1)];
+        return new String(blocks[(int) (position >>> 32)], (int) position, length, StandardCharsets.UTF_8);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // байты строк вместе с неиспользованным хвостом последнего блока
+    public long byteSize() {
+        long total = 0;
+        for (byte[] block : blocks) {
+            total += block.length;
+        }
+        return total;
+    }
+
+    private int append(byte[] bytes, int hash) {
+        if (blocks.length == 0 || blockUsed + bytes.length > blocks[blocks.length - 1].length) {
+            byte[][] grown = Arrays.copyOf(blocks, blocks.length + 1);
+            grown[blocks.length] = new byte[Math.max(BLOCK_SIZE, bytes.length)];
+            blocks = grown;
+            blockUsed = 0;
+        }
+        int block = blocks.length - 1;
+        System.arraycopy(bytes, 0, blocks[block], blockUsed, bytes.length);
+        int code = size;
+        if ((code & (PAGE_SIZE - 1)) == 0) {
+            long[][] grownPositions = Arrays.copyOf(positions, positions.length + 1);
+            grownPositions[positions.length] = new long[PAGE_SIZE];
+            int[][] grownLengths = Arrays.copyOf(lengths, lengths.length + 1);
+            grownLengths[lengths.length] = new int[PAGE_SIZE];
+            positions = grownPositions;
+            lengths = grownLengths;
+        }
+        if (code == hashes.length) {
+            hashes = Arrays.copyOf(hashes, code << 1);
+        }
+        positions[code >>> PAGE_BITS][code & (PAGE_SIZE - 1)] = (long) block << 32 | blockUsed;
+        lengths[code >>> PAGE_BITS][code & (PAGE_SIZE - 1)] = bytes.length;
+        hashes[code] = hash;
+        blockUsed += bytes.length;
+        size++;
+        return code;
+    }
+
+    private boolean equals(int code, byte[] bytes) {
+        int length = lengths[code >>> PAGE_BITS][code & (PAGE_SIZE - 1)];
+        if (length != bytes.length) {
+            return false;
+        }
+        long position = positions[code >>> PAGE_BITS][code & (PAGE_SIZE - 1)];
+        return Arrays.equals(blocks[(int) (position >>> 32)], (int) position, (int) position + length,
+                bytes, 0, length);
+    }
+
+    private void rehash(int capacity) {
+        int[] grown = new int[capacity];
+        int mask = capacity - 1;
+        for (int code = 0; code < size; code++) {
+            int i = spread(hashes[code]) & mask;
+            while (grown[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            grown[i] = code + 1;
+        }
+        table = grown;
+    }
+
+    private static int spread(int hash) {
+        return hash * 0x9E3779B9 ^ hash >>> 16;
+    }
+}
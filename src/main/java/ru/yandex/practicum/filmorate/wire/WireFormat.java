@@ -0,0 +1,54 @@
+package ru.yandex.practicum.filmorate.wire;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+// Форматы ответа. Smile и CBOR - двоичные представления той же модели данных Jackson:
+// поля, даты и продолжительности кодируются теми же правилами, что и в JSON, только компактнее
+public enum WireFormat {
+    JSON(MediaType.APPLICATION_JSON),
+    SMILE(new MediaType("application", "x-jackson-smile")),
+    CBOR(MediaType.APPLICATION_CBOR);
+
+    private final MediaType mediaType;
+
+    WireFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    // формат по заголовку Accept: подходящий тип с наибольшим q, при равных - первый в заголовке.
+    // Без заголовка, при */* и при неизвестных типах - JSON, как и до появления двоичных форматов
+    public static WireFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        WireFormat best = JSON;
+        double bestQuality = 0;
+        for (MediaType type : accepted) {
+            double quality = type.getQualityValue();
+            if (quality <= bestQuality) {
+                continue;
+            }
+            for (WireFormat format : values()) {
+                if (type.includes(format.mediaType)) {
+                    best = format;
+                    bestQuality = quality;
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+}
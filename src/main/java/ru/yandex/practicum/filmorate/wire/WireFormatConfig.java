@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate.wire;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+// Конвертеры Smile и CBOR для тел запросов и ответов, которые Spring MVC кодирует сам.
+// Свои бины заменяют конвертеры по умолчанию: те собраны без настроек spring.jackson.*
+@Configuration
+public class WireFormatConfig {
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(WireMappers mappers) {
+        return new MappingJackson2SmileHttpMessageConverter(mappers.mapper(WireFormat.SMILE));
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(WireMappers mappers) {
+        return new MappingJackson2CborHttpMessageConverter(mappers.mapper(WireFormat.CBOR));
+    }
+}
@@ -0,0 +1,27 @@
+package ru.yandex.practicum.filmorate.wire;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// ObjectMapper на каждый формат. Все собираются одним построителем Spring Boot,
+// поэтому модули и настройки (spring.jackson.*) у двоичных форматов те же, что у JSON
+@Component
+public class WireMappers {
+    private final Map<WireFormat, ObjectMapper> mappers = new EnumMap<>(WireFormat.class);
+
+    public WireMappers(Jackson2ObjectMapperBuilder builder) {
+        mappers.put(WireFormat.JSON, builder.build());
+        mappers.put(WireFormat.SMILE, builder.factory(new SmileFactory()).build());
+        mappers.put(WireFormat.CBOR, builder.factory(new CBORFactory()).build());
+    }
+
+    public ObjectMapper mapper(WireFormat format) {
+        return mappers.get(format);
+    }
+}
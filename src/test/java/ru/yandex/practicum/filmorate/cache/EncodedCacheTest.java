@@ -0,0 +1,138 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.yandex.practicum.filmorate.wire.WireFormat;
+import ru.yandex.practicum.filmorate.wire.WireMappers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EncodedCacheTest {
+    private final EncodedCache cache = new EncodedCache(new WireMappers(Jackson2ObjectMapperBuilder.json()), 1 << 20,
+            Duration.ofMinutes(1));
+
+    @Test
+    void whenVersionIsUnchangedThenBodyIsEncodedOnce() {
+        AtomicInteger encoded = new AtomicInteger();
+
+        byte[] first = cache.get("all", WireFormat.JSON, 1, () -> body(encoded, "a"));
+        byte[] second = cache.get("all", WireFormat.JSON, 1, () -> body(encoded, "b"));
+
+        Assertions.assertEquals(1, encoded.get());
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals("[\"a\"]", new String(second));
+    }
+
+    @Test
+    void whenVersionChangesThenStaleBytesAreNotReturned() {
+        cache.get("all", WireFormat.JSON, 1, () -> List.of("old"));
+
+        byte[] fresh = cache.get("all", WireFormat.JSON, 2, () -> List.of("new"));
+
+        Assertions.assertEquals("[\"new\"]", new String(fresh));
+        Assertions.assertEquals("[\"new\"]", new String(cache.get("all", WireFormat.JSON, 2, () -> List.of("other"))));
+    }
+
+    @Test
+    void whenOlderVersionIsEncodedLaterThenNewerEntryIsKept() {
+        cache.get("all", WireFormat.JSON, 5, () -> List.of("new"));
+
+        // запрос, начавшийся до изменения, получает свой ответ, но не затирает более новый
+        Assertions.assertEquals("[\"old\"]", new String(cache.get("all", WireFormat.JSON, 4, () -> List.of("old"))));
+        Assertions.assertEquals("[\"new\"]", new String(cache.get("all", WireFormat.JSON, 5, () -> List.of("other"))));
+    }
+
+    @Test
+    void whenKeyIsInvalidatedThenBodyIsEncodedAgain() {
+        AtomicInteger encoded = new AtomicInteger();
+        cache.get("id:1", WireFormat.JSON, 1, () -> body(encoded, "a"));
+
+        cache.invalidate("id:1");
+        cache.get("id:1", WireFormat.JSON, 1, () -> body(encoded, "a"));
+
+        Assertions.assertEquals(2, encoded.get());
+    }
+
+    @Test
+    void whenFormatsDifferThenEachIsCachedSeparatelyAndInvalidatedTogether() {
+        AtomicInteger encoded = new AtomicInteger();
+        byte[] json = cache.get("id:1", WireFormat.JSON, 1, () -> body(encoded, "a"));
+        byte[] smile = cache.get("id:1", WireFormat.SMILE, 1, () -> body(encoded, "a"));
+
+        Assertions.assertEquals(2, encoded.get());
+        Assertions.assertEquals("[\"a\"]", new String(json));
+        // заголовок Smile ":)\n"
+        Assertions.assertEquals(':', smile[0]);
+        Assertions.assertSame(smile, cache.get("id:1", WireFormat.SMILE, 1, () -> body(encoded, "b")));
+
+        cache.invalidate("id:1");
+        cache.get("id:1", WireFormat.JSON, 1, () -> body(encoded, "a"));
+        cache.get("id:1", WireFormat.SMILE, 1, () -> body(encoded, "a"));
+        Assertions.assertEquals(4, encoded.get());
+    }
+
+    @Test
+    void whenSameMissArrivesConcurrentlyThenBodyIsEncodedOnce() throws InterruptedException {
+        AtomicInteger encoded = new AtomicInteger();
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        byte[][] results = new byte[8][];
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < results.length; i++) {
+            int n = i;
+            threads.add(new Thread(() -> results[n] = cache.get("all", WireFormat.JSON, 1, () -> {
+                computing.countDown();
+                await(release);
+                return body(encoded, "a");
+            })));
+        }
+        threads.get(0).start();
+        computing.await();
+        for (Thread thread : threads.subList(1, threads.size())) {
+            thread.start();
+        }
+        // остальные потоки должны дойти до ожидания чужого результата
+        while (cache.flights().followers() < results.length - 1) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertEquals(1, encoded.get());
+        for (byte[] result : results) {
+            Assertions.assertSame(results[0], result);
+        }
+        Assertions.assertEquals(1, cache.flights().leaders());
+    }
+
+    @Test
+    void whenCoalescedComputationFailsThenEveryWaiterGetsTheError() {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+
+        Assertions.assertThrows(IllegalStateException.class, () -> flight.execute("k", () -> {
+            throw new IllegalStateException("сбой");
+        }));
+        // неудачный расчет не остается в полете
+        Assertions.assertEquals("ok", flight.execute("k", () -> "ok"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<String> body(AtomicInteger encoded, String value) {
+        encoded.incrementAndGet();
+        return List.of(value);
+    }
+}
@@ -1,18 +1,41 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validation;
 import jakarta.validation.Validator;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.cache.ResponseCache;
+import ru.yandex.practicum.filmorate.event.EventBus;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.model.UserCreate;
+import ru.yandex.practicum.filmorate.service.RecommendationService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.wire.WireMappers;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Set;
 
 public class UserControllerTest {
+    private final ResponseCache responseCache =
+            new ResponseCache(new WireMappers(Jackson2ObjectMapperBuilder.json()), 1 << 20, 60_000, true);
     private Validator validator;
 
     @BeforeEach
@@ -88,12 +111,106 @@ public class UserControllerTest {
     @Test
     void whenUserNameIsNullThenNoException() {
         User user = new User(null, "tom@cat.ru", "login", null, LocalDate.of(1980, 05, 11));
-        Assertions.assertDoesNotThrow(() -> UserController.validate(user), "Этот код не должен выбрасывать исключение");
-        UserController userController = new UserController();
+        Assertions.assertDoesNotThrow(() -> UserService.validate(user), "Этот код не должен выбрасывать исключение");
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        EventBus eventBus = new EventBus(List.of(), new StandardEnvironment());
+        UserController userController = new UserController(userStorage, new NdjsonWriter(new ObjectMapper()),
+                new NdjsonReader(new ObjectMapper()),
+                new ResponseCache(new WireMappers(Jackson2ObjectMapperBuilder.json()), 1 << 20, 60_000, true),
+                new UserService(userStorage, validator, eventBus),
+                new RecommendationService(new InMemoryFilmStorage(), userStorage, 20, 1000), eventBus,
+                new StreamedBody(new WireMappers(Jackson2ObjectMapperBuilder.json())));
         User createdUser = userController.createUser(user);
         Assertions.assertEquals("login", createdUser.getName());
     }
 
+    @Test
+    void whenSinceIsAheadOfStoreThenAllUsersAreReturned() {
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        UserController userController = controller(userStorage);
+        userStorage.create(new User(null, "tom@cat.ru", "tom", "Tom", LocalDate.of(1980, 5, 11)));
+        userStorage.create(new User(null, "jerry@cat.ru", "jerry", "Jerry", LocalDate.of(1980, 5, 11)));
+        long version = userStorage.version();
+
+        // метка от другого хранилища или от прошлого запуска без диска
+        byte[] ahead = userController.findPage(null, null, version + 100, null, request()).getBody();
+        byte[] current = userController.findPage(null, null, version, null, request()).getBody();
+
+        Assertions.assertEquals(2, countUsers(ahead));
+        Assertions.assertEquals(0, countUsers(current));
+    }
+
+    @Test
+    void whenFormatsDifferThenEachHasItsOwnETagAndNotModifiedVariesByAccept() {
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        UserController userController = controller(userStorage);
+        userStorage.create(new User(null, "tom@cat.ru", "tom", "Tom", LocalDate.of(1980, 5, 11)));
+        long version = userStorage.version();
+        String smile = "application/x-jackson-smile";
+
+        MockHttpServletResponse json = new MockHttpServletResponse();
+        userController.findPage(null, 10, null, null, request(null, json));
+        Assertions.assertEquals("\"" + version + "\"", json.getHeader(HttpHeaders.ETAG));
+
+        // ETag из JSON-ответа не подходит к Smile: отдаем тело, а не 304
+        MockHttpServletResponse binary = new MockHttpServletResponse();
+        ResponseEntity<byte[]> full = userController.findPage(null, 10, null, smile,
+                request(json.getHeader(HttpHeaders.ETAG), binary));
+        Assertions.assertEquals(HttpStatus.OK, full.getStatusCode());
+        Assertions.assertEquals("\"" + version + "-smile\"", binary.getHeader(HttpHeaders.ETAG));
+
+        ResponseEntity<byte[]> notModified = userController.findPage(null, 10, null, smile,
+                request(binary.getHeader(HttpHeaders.ETAG), new MockHttpServletResponse()));
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        Assertions.assertEquals(HttpHeaders.ACCEPT, notModified.getHeaders().getFirst(HttpHeaders.VARY));
+    }
+
+    @Test
+    void whenWholeListIsRequestedThenItIsStreamedWithoutCaching() throws IOException {
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        UserController userController = controller(userStorage);
+        userStorage.create(new User(null, "tom@cat.ru", "tom", "Tom", LocalDate.of(1980, 5, 11)));
+        userStorage.create(new User(null, "jerry@cat.ru", "jerry", "Jerry", LocalDate.of(1980, 5, 11)));
+
+        ResponseEntity<StreamingResponseBody> response = userController.findAll(null, request());
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        response.getBody().writeTo(body);
+
+        Assertions.assertEquals(2, countUsers(body.toByteArray()));
+        Assertions.assertEquals(HttpHeaders.ACCEPT, response.getHeaders().getFirst(HttpHeaders.VARY));
+        Assertions.assertEquals(0, responseCache.users().cache().estimatedSize());
+    }
+
+    private UserController controller(InMemoryUserStorage userStorage) {
+        EventBus eventBus = new EventBus(List.of(), new StandardEnvironment());
+        return new UserController(userStorage, new NdjsonWriter(new ObjectMapper()),
+                new NdjsonReader(new ObjectMapper()),
+                responseCache,
+                new UserService(userStorage, validator, eventBus),
+                new RecommendationService(new InMemoryFilmStorage(), userStorage, 20, 1000), eventBus,
+                new StreamedBody(new WireMappers(Jackson2ObjectMapperBuilder.json())));
+    }
+
+    private static ServletWebRequest request() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/users"));
+    }
+
+    private static ServletWebRequest request(String ifNoneMatch, MockHttpServletResponse response) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, response);
+    }
+
+    private static int countUsers(byte[] body) {
+        try {
+            return new ObjectMapper().readTree(body).size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @Test
     void whenUserBirthdayIsNullThenBirthdayValidationIsFailed() {
         User user = new User(null, "tom@cat.ru", "login", "name", null);
@@ -0,0 +1,229 @@
+package ru.yandex.practicum.filmorate.event;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.util.MpmcRingBuffer;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EventBusTest {
+    private EventBus bus;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (bus != null) {
+            bus.stop();
+        }
+    }
+
+    @Test
+    void whenManyThreadsUseRingThenEveryElementIsTakenExactlyOnce() throws InterruptedException {
+        MpmcRingBuffer<Integer> ring = new MpmcRingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 20_000;
+        Set<Integer> seen = ConcurrentHashMap.newKeySet();
+        AtomicInteger taken = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        for (int c = 0; c < 2; c++) {
+            threads.add(new Thread(() -> {
+                while (taken.get() < producers * perProducer) {
+                    Integer value = ring.poll();
+                    if (value == null) {
+                        Thread.yield();
+                        continue;
+                    }
+                    seen.add(value);
+                    taken.incrementAndGet();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+
+        Assertions.assertEquals(producers * perProducer, taken.get());
+        Assertions.assertEquals(producers * perProducer, seen.size(), "элементы не должны повторяться");
+        Assertions.assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    void whenRingIsFullThenOfferFails() {
+        MpmcRingBuffer<Integer> ring = new MpmcRingBuffer<>(3);
+
+        Assertions.assertEquals(4, ring.capacity());
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertTrue(ring.offer(i));
+        }
+        Assertions.assertFalse(ring.offer(4));
+        Assertions.assertEquals(0, ring.poll());
+        Assertions.assertTrue(ring.offer(4));
+    }
+
+    @Test
+    void whenEventIsPublishedThenEveryListenerGetsIt() throws InterruptedException {
+        Recorder first = new Recorder("first");
+        Recorder second = new Recorder("second");
+        bus = start(environment(), first, second);
+
+        for (int i = 0; i < 100; i++) {
+            bus.publish(new DomainEvent.FilmCreated(film(i)));
+        }
+        bus.stop();
+
+        Assertions.assertEquals(100, first.events.size());
+        Assertions.assertEquals(100, second.events.size());
+        Assertions.assertEquals("film-created", first.events.get(0).type());
+        Assertions.assertTrue(first.closed);
+    }
+
+    @Test
+    void whenListenerIsSlowThenNewestEventsAreDroppedAndPublisherDoesNotWait() throws InterruptedException {
+        Recorder slow = new Recorder("slow");
+        bus = start(environment("slow.capacity", "4"), slow);
+        slow.gate = new CountDownLatch(1);
+
+        long started = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            bus.publish(new DomainEvent.FilmCreated(film(i)));
+        }
+        long elapsed = System.nanoTime() - started;
+        slow.gate.countDown();
+        bus.stop();
+
+        Assertions.assertTrue(elapsed < TimeUnit.SECONDS.toNanos(1), "публикация не должна ждать получателя");
+        // одно событие получатель успел забрать, пока не встал, и еще четыре поместились в очередь
+        Assertions.assertTrue(slow.events.size() <= 5, "доставлено " + slow.events.size());
+        Assertions.assertEquals(0, ((Film) slow.events.get(0).payload()).getId());
+    }
+
+    @Test
+    void whenBackpressureIsDropOldestThenNewestEventsAreKept() throws InterruptedException {
+        Recorder slow = new Recorder("slow");
+        slow.gate = new CountDownLatch(1);
+        bus = start(environment("slow.capacity", "4", "slow.backpressure", "drop-oldest"), slow);
+
+        for (int i = 0; i < 1000; i++) {
+            bus.publish(new DomainEvent.FilmCreated(film(i)));
+        }
+        slow.gate.countDown();
+        bus.stop();
+
+        Film last = (Film) slow.events.get(slow.events.size() - 1).payload();
+        Assertions.assertEquals(999, last.getId());
+        Assertions.assertTrue(slow.events.size() <= 5, "доставлено " + slow.events.size());
+    }
+
+    @Test
+    void whenSampleRateIsZeroThenNothingIsDelivered() throws InterruptedException {
+        Recorder sampled = new Recorder("sampled");
+        bus = start(environment("sampled.sample-rate", "0"), sampled);
+
+        for (int i = 0; i < 100; i++) {
+            bus.publish(new DomainEvent.FilmCreated(film(i)));
+        }
+        bus.stop();
+
+        Assertions.assertTrue(sampled.events.isEmpty());
+    }
+
+    @Test
+    void whenListenerFailsThenItKeepsGettingEvents() throws InterruptedException {
+        Recorder failing = new Recorder("failing") {
+            @Override
+            public void onEvent(DomainEvent event) {
+                super.onEvent(event);
+                throw new IllegalStateException("сбой получателя");
+            }
+        };
+        bus = start(environment(), failing);
+
+        for (int i = 0; i < 10; i++) {
+            bus.publish(new DomainEvent.FilmCreated(film(i)));
+        }
+        bus.stop();
+
+        Assertions.assertEquals(10, failing.events.size());
+    }
+
+    // пары "получатель.настройка", значение без префикса filmorate.events.
+    private static StandardEnvironment environment(String... properties) {
+        Map<String, Object> values = new HashMap<>();
+        for (int i = 0; i < properties.length; i += 2) {
+            values.put("filmorate.events." + properties[i], properties[i + 1]);
+        }
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", values));
+        return environment;
+    }
+
+    private static EventBus start(StandardEnvironment environment, EventListener... listeners) {
+        EventBus bus = new EventBus(List.of(listeners), environment);
+        bus.start();
+        return bus;
+    }
+
+    private static Film film(long id) {
+        return new Film(id, "Фильм " + id, "desc", LocalDate.of(2020, 5, 11), Duration.ofMinutes(90));
+    }
+
+    private static class Recorder implements EventListener {
+        private final String name;
+        final List<DomainEvent> events = new CopyOnWriteArrayList<>();
+        volatile CountDownLatch gate;
+        volatile boolean closed;
+
+        Recorder(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public void onEvent(DomainEvent event) {
+            events.add(event);
+            CountDownLatch current = gate;
+            if (current != null) {
+                try {
+                    current.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+package ru.yandex.practicum.filmorate.load;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+import ru.yandex.practicum.filmorate.cache.ResponseCache;
+import ru.yandex.practicum.filmorate.cache.SingleFlight;
+import ru.yandex.practicum.filmorate.controller.Paging;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Шумный клиент с постоянной частотой шлет добавления фильмов вперемешку с чтением самой большой страницы;
+// каждое добавление меняет версию и заставляет следующую страницу собираться заново.
+// Тихий клиент в это время изредка читает первую страницу и замеряет задержку.
+// Запуск: mvn test -Pload-tests; нагрузка - -Dload.noisyRate, число фильмов - -Dload.films
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = "filmorate.rate-limit.client-header=X-Client-Id")
+abstract class BurstLoadTest {
+    private static final int NOISY_RATE = Integer.getInteger("load.noisyRate", 500);
+    private static final int FILMS = Integer.getInteger("load.films", 5000);
+    private static final int PROBES = 200;
+    private static final int PROBE_PAUSE_MS = 20;
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private FilmStorage filmStorage;
+    @Autowired
+    private ResponseCache responseCache;
+
+    protected abstract String mode();
+
+    @Test
+    void whenNoisyClientBurstsThenQuietClientKeepsLowLatency() throws Exception {
+        for (int i = filmStorage.size(); i < FILMS; i++) {
+            filmStorage.create(new Film(null, "Фильм " + i, "Описание", LocalDate.of(2000, 1, 1),
+                    Duration.ofMinutes(90)));
+        }
+        // у клиентов разные HttpClient: иначе тихий ждал бы в общем селекторе соединений шумного
+        HttpClient noisyHttp = client();
+        HttpClient quietHttp = client();
+        Assertions.assertEquals(200, send(quietHttp, "quiet", get("/films?limit=10")));
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            AtomicBoolean probing = new AtomicBoolean(true);
+            Map<Integer, Integer> statuses = new ConcurrentSkipListMap<>();
+            // открытая нагрузка: запросы уходят с постоянной частотой, не дожидаясь ответов на прошлые
+            Future<?> noisy = clients.submit(() -> {
+                int perTick = Math.max(1, NOISY_RATE / 100);
+                int sent = 0;
+                while (probing.get()) {
+                    for (int k = 0; k < perTick; k++, sent++) {
+                        HttpRequest.Builder request = sent % 4 == 0
+                                ? post("/films", filmJson(sent))
+                                : get("/films?limit=" + Paging.MAX_LIMIT);
+                        clients.submit(() -> statuses.merge(send(noisyHttp, "noisy", request), 1, Integer::sum));
+                    }
+                    Thread.sleep(10);
+                }
+                return null;
+            });
+
+            long[] latencies = new long[PROBES];
+            for (int i = 0; i < PROBES; i++) {
+                Thread.sleep(PROBE_PAUSE_MS);
+                long probeStarted = System.nanoTime();
+                Assertions.assertEquals(200, send(quietHttp, "quiet", get("/films?limit=10")));
+                latencies[i] = System.nanoTime() - probeStarted;
+            }
+            probing.set(false);
+            noisy.get();
+
+            Assertions.assertTrue(statuses.keySet().stream().allMatch(code -> code == 200 || code == 429),
+                    "коды ответов " + statuses);
+            Arrays.sort(latencies);
+            SingleFlight<?, ?> flights = responseCache.films().flights();
+            System.out.printf("[%s] шумный клиент %d запросов в секунду, ответы %s, сборок списка %s, совместных %s; "
+                            + "тихий клиент p50=%d мс, p99=%d мс, max=%d мс%n",
+                    mode(), NOISY_RATE, statuses,
+                    flights == null ? "-" : flights.leaders(), flights == null ? "-" : flights.followers(),
+                    latencies[PROBES / 2] / 1_000_000,
+                    latencies[PROBES * 99 / 100] / 1_000_000,
+                    latencies[PROBES - 1] / 1_000_000);
+        }
+    }
+
+    private static HttpClient client() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    private int send(HttpClient http, String client, HttpRequest.Builder request) throws Exception {
+        return http.send(request.header("X-Client-Id", client).build(), HttpResponse.BodyHandlers.discarding())
+                .statusCode();
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET();
+    }
+
+    private HttpRequest.Builder post(String path, String body) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private static String filmJson(int n) {
+        return "{\"name\":\"Всплеск " + n + "\",\"description\":\"Описание\","
+                + "\"releaseDate\":\"2000-01-01\",\"duration\":90}";
+    }
+}
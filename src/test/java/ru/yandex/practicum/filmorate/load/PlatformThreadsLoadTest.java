@@ -0,0 +1,12 @@
+package ru.yandex.practicum.filmorate.load;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "spring.threads.virtual.enabled=false")
+class PlatformThreadsLoadTest extends SlowClientsLoadTest {
+
+    @Override
+    protected String mode() {
+        return "платформенные потоки";
+    }
+}
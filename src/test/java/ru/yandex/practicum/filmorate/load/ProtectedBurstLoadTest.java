@@ -0,0 +1,15 @@
+package ru.yandex.practicum.filmorate.load;
+
+import org.springframework.test.context.TestPropertySource;
+
+// лимиты ниже рабочих, чтобы всплеск упирался в ограничитель, а не в производительность стенда
+@TestPropertySource(properties = {"filmorate.rate-limit.enabled=true", "filmorate.cache.coalescing=true",
+        "filmorate.rate-limit.write.per-second=20", "filmorate.rate-limit.write.burst=20",
+        "filmorate.rate-limit.list.per-second=20", "filmorate.rate-limit.list.burst=100"})
+class ProtectedBurstLoadTest extends BurstLoadTest {
+
+    @Override
+    protected String mode() {
+        return "ограничение частоты и схлопывание";
+    }
+}
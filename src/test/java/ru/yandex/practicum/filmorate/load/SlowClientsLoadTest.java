@@ -0,0 +1,130 @@
+package ru.yandex.practicum.filmorate.load;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Много медленных клиентов держат запросы открытыми, пока быстрые замеряют задержку.
+// Запуск: mvn test -Pload-tests; размер нагрузки - -Dload.slowClients и -Dload.chunkDelayMs
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+// все медленные клиенты приходят с одного адреса: ограничитель частоты здесь мешал бы замеру
+@TestPropertySource(properties = "filmorate.rate-limit.enabled=false")
+abstract class SlowClientsLoadTest {
+    private static final int SLOW_CLIENTS = Integer.getInteger("load.slowClients", 400);
+    private static final int CHUNK_DELAY_MS = Integer.getInteger("load.chunkDelayMs", 200);
+    private static final int CHUNKS = 10;
+    private static final int PROBES = 50;
+    private static final int SOCKET_TIMEOUT_MS = 60_000;
+
+    @LocalServerPort
+    private int port;
+
+    protected abstract String mode();
+
+    @Test
+    void whenManySlowClientsPostThenAllAreServedAndFastReadsKeepGoing() throws Exception {
+        // прогрев, чтобы первый замер не включал инициализацию DispatcherServlet
+        Assertions.assertEquals(200, get("/films?limit=10"));
+        // клиенты сами на виртуальных потоках, чтобы нагрузка не упиралась в стенд
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Integer>> slow = new ArrayList<>();
+            long started = System.nanoTime();
+            for (int i = 0; i < SLOW_CLIENTS; i++) {
+                int n = i;
+                slow.add(clients.submit(() -> n % 2 == 0
+                        ? slowPost("/films", filmJson(n))
+                        : slowPost("/users", userJson(n))));
+            }
+
+            long[] latencies = new long[PROBES];
+            for (int i = 0; i < PROBES; i++) {
+                String path = i % 2 == 0 ? "/films?limit=10" : "/users?limit=10";
+                long probeStarted = System.nanoTime();
+                Assertions.assertEquals(200, get(path), "GET " + path);
+                latencies[i] = System.nanoTime() - probeStarted;
+            }
+
+            for (Future<Integer> response : slow) {
+                Assertions.assertEquals(200, response.get());
+            }
+            long totalMs = (System.nanoTime() - started) / 1_000_000;
+
+            Arrays.sort(latencies);
+            System.out.printf("[%s] медленных клиентов: %d, всего %d мс; быстрые GET p50=%d мс, p99=%d мс, max=%d мс%n",
+                    mode(), SLOW_CLIENTS, totalMs,
+                    latencies[PROBES / 2] / 1_000_000,
+                    latencies[PROBES * 99 / 100] / 1_000_000,
+                    latencies[PROBES - 1] / 1_000_000);
+        }
+    }
+
+    // заголовки уходят сразу, тело - частями с паузами: обработчик блокируется на чтении тела
+    private int slowPost(String path, String body) throws IOException, InterruptedException {
+        try (Socket socket = open()) {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            OutputStream out = socket.getOutputStream();
+            out.write(("POST " + path + " HTTP/1.1\r\n"
+                    + "Host: localhost\r\n"
+                    + "Content-Type: application/json\r\n"
+                    + "Content-Length: " + bytes.length + "\r\n"
+                    + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            int chunk = Math.max(1, (bytes.length + CHUNKS - 1) / CHUNKS);
+            for (int offset = 0; offset < bytes.length; offset += chunk) {
+                Thread.sleep(CHUNK_DELAY_MS);
+                out.write(bytes, offset, Math.min(chunk, bytes.length - offset));
+                out.flush();
+            }
+            return readStatus(socket.getInputStream());
+        }
+    }
+
+    private int get(String path) throws IOException {
+        try (Socket socket = open()) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET " + path + " HTTP/1.1\r\n"
+                    + "Host: localhost\r\n"
+                    + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            return readStatus(socket.getInputStream());
+        }
+    }
+
+    private Socket open() throws IOException {
+        Socket socket = new Socket("localhost", port);
+        socket.setSoTimeout(SOCKET_TIMEOUT_MS);
+        return socket;
+    }
+
+    // ответ читается целиком (Connection: close), код берется из строки статуса "HTTP/1.1 200 "
+    private static int readStatus(InputStream in) throws IOException {
+        String response = new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+        return Integer.parseInt(response.substring(9, 12));
+    }
+
+    private static String filmJson(int n) {
+        return "{\"name\":\"Фильм " + n + "\",\"description\":\"Описание\","
+                + "\"releaseDate\":\"2000-01-01\",\"duration\":90}";
+    }
+
+    private static String userJson(int n) {
+        return "{\"email\":\"user" + n + "@mail.ru\",\"login\":\"login" + n + "\","
+                + "\"birthday\":\"1990-01-01\"}";
+    }
+}
@@ -0,0 +1,12 @@
+package ru.yandex.practicum.filmorate.load;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = {"filmorate.rate-limit.enabled=false", "filmorate.cache.coalescing=false"})
+class UnprotectedBurstLoadTest extends BurstLoadTest {
+
+    @Override
+    protected String mode() {
+        return "без ограничений";
+    }
+}
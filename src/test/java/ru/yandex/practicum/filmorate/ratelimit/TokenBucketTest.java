@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate.ratelimit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TokenBucketTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void whenBurstIsSpentThenNextTokenComesAfterOneInterval() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertEquals(0, bucket.tryAcquire(0), "запрос " + i);
+        }
+        Assertions.assertEquals(SECOND / 10, bucket.tryAcquire(0));
+        Assertions.assertEquals(SECOND / 20, bucket.tryAcquire(SECOND / 20));
+        Assertions.assertEquals(0, bucket.tryAcquire(SECOND / 10));
+        Assertions.assertNotEquals(0, bucket.tryAcquire(SECOND / 10));
+    }
+
+    @Test
+    void whenClientIsIdleThenBucketRefillsOnlyUpToBurst() {
+        TokenBucket bucket = new TokenBucket(10, 3, 0);
+
+        int allowed = 0;
+        while (bucket.tryAcquire(100 * SECOND) == 0) {
+            allowed++;
+        }
+
+        Assertions.assertEquals(3, allowed);
+    }
+
+    @Test
+    void whenManyThreadsTakeTokensAtOnceThenExactlyBurstSucceeds() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 1000, 0);
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 500; i++) {
+                    if (bucket.tryAcquire(0) == 0) {
+                        allowed.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertEquals(1000, allowed.get());
+    }
+}
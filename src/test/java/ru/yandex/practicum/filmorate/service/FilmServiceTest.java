@@ -0,0 +1,121 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.yandex.practicum.filmorate.controller.NdjsonReader;
+import ru.yandex.practicum.filmorate.event.EventBus;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class FilmServiceTest {
+    private InMemoryFilmStorage filmStorage;
+    private FilmService filmService;
+
+    @BeforeEach
+    void setUp() {
+        filmStorage = new InMemoryFilmStorage();
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        filmService = new FilmService(filmStorage, userStorage, Validation.buildDefaultValidatorFactory().getValidator(),
+                new RecommendationService(filmStorage, userStorage, 20, 1000),
+                new EventBus(List.of(), new StandardEnvironment()));
+    }
+
+    @Test
+    void whenBatchHasInvalidFilmsThenOnlyValidOnesAreCreated() {
+        Film tooOld = film("old");
+        tooOld.setReleaseDate(LocalDate.of(1890, 1, 1));
+        Film noName = film(" ");
+
+        BatchResult result = filmService.createAll(Arrays.asList(film("first"), tooOld, noName, null, film("last")));
+
+        Assertions.assertEquals(2, result.getSucceeded());
+        Assertions.assertEquals(3, result.getFailed());
+        Assertions.assertEquals(BatchItemResult.Status.CREATED, result.getItems().get(0).getStatus());
+        Assertions.assertEquals(BatchItemResult.Status.REJECTED, result.getItems().get(1).getStatus());
+        Assertions.assertEquals("Имя не может быть пустым", result.getItems().get(2).getError());
+        Assertions.assertEquals(BatchItemResult.Status.REJECTED, result.getItems().get(3).getStatus());
+        Assertions.assertEquals(BatchItemResult.Status.CREATED, result.getItems().get(4).getStatus());
+        Assertions.assertEquals(2, filmStorage.size());
+    }
+
+    @Test
+    void whenLargeBatchIsCreatedThenIdsAreContiguousAndFollowInputOrder() {
+        List<Film> batch = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            batch.add(film("film " + i));
+        }
+
+        BatchResult result = filmService.createAll(batch);
+
+        Assertions.assertEquals(5_000, result.getSucceeded());
+        long firstId = result.getItems().get(0).getId();
+        for (int i = 0; i < batch.size(); i++) {
+            long id = result.getItems().get(i).getId();
+            Assertions.assertEquals(firstId + i, id);
+            Assertions.assertEquals("film " + i, filmStorage.findById(id).orElseThrow().getName());
+        }
+    }
+
+    @Test
+    void whenBatchUpdateHasUnknownIdsThenTheyAreReportedAsNotFound() {
+        Film stored = filmStorage.create(film("old name"));
+        Film renamed = film("new name");
+        renamed.setId(stored.getId());
+        Film unknown = film("unknown");
+        unknown.setId(999L);
+        Film withoutId = film("without id");
+
+        BatchResult result = filmService.updateAll(List.of(renamed, unknown, withoutId));
+
+        Assertions.assertEquals(BatchItemResult.Status.UPDATED, result.getItems().get(0).getStatus());
+        Assertions.assertEquals(BatchItemResult.Status.NOT_FOUND, result.getItems().get(1).getStatus());
+        Assertions.assertEquals(BatchItemResult.Status.REJECTED, result.getItems().get(2).getStatus());
+        Assertions.assertEquals("new name", filmStorage.findById(stored.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void whenBatchIsSentAsArrayOrNdjsonThenBothAreRead() throws Exception {
+        NdjsonReader reader = new NdjsonReader(Jackson2ObjectMapperBuilder.json().build());
+        String item = "{\"name\":\"a\",\"description\":\"b\",\"releaseDate\":\"2000-01-01\",\"duration\":90}";
+
+        List<Film> fromArray = reader.read(stream("[" + item + "," + item + "]"), Film.class);
+        List<Film> fromNdjson = reader.read(stream(item + "\n" + item + "\n" + item + "\n"), Film.class);
+
+        Assertions.assertEquals(2, fromArray.size());
+        Assertions.assertEquals(3, fromNdjson.size());
+        Assertions.assertThrows(ValidationException.class, () -> reader.read(stream(item + "\n{oops"), Film.class));
+    }
+
+    @Test
+    void whenPopularCountIsAboveCapThenItIsRejected() {
+        filmStorage.create(film("film"));
+
+        Assertions.assertEquals(1, filmService.getPopular(FilmService.MAX_POPULAR).size());
+        Assertions.assertThrows(ValidationException.class, () -> filmService.getPopular(2_000_000_000));
+        Assertions.assertThrows(ValidationException.class, () -> filmService.getPopular(0));
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Film film(String name) {
+        return new Film(null, name, "description", LocalDate.of(2000, 1, 1), Duration.ofMinutes(90));
+    }
+}
@@ -0,0 +1,148 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+import ru.yandex.practicum.filmorate.event.EventBus;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+public class RecommendationServiceTest {
+    private InMemoryFilmStorage filmStorage;
+    private InMemoryUserStorage userStorage;
+    private RecommendationService recommendations;
+    private FilmService filmService;
+
+    @BeforeEach
+    void setUp() {
+        filmStorage = new InMemoryFilmStorage();
+        userStorage = new InMemoryUserStorage();
+        recommendations = new RecommendationService(filmStorage, userStorage, 20, 3);
+        filmService = new FilmService(filmStorage, userStorage, Validation.buildDefaultValidatorFactory().getValidator(),
+                recommendations, new EventBus(List.of(), new StandardEnvironment()));
+    }
+
+    @Test
+    void whenNeighborsAreComputedThenFilmsAreRankedBySimilarityOfTheirFans() {
+        long me = user("me");
+        long close = user("close");
+        long far = user("far");
+        long a = film("a");
+        long b = film("b");
+        long c = film("c");
+        long d = film("d");
+        like(me, a, b);
+        like(close, a, b, c);
+        like(far, a, d);
+
+        recommendations.refresh();
+
+        // сходство с close - 2/3, с far - 1/3
+        Assertions.assertEquals(List.of(c, d), ids(recommendations.getRecommendations(me, 10)));
+        Assertions.assertEquals(List.of(c), ids(recommendations.getRecommendations(me, 1)));
+    }
+
+    @Test
+    void whenLikesChangeThenOnlyNextRefreshUpdatesRecommendations() {
+        long me = user("me");
+        long other = user("other");
+        long a = film("a");
+        long b = film("b");
+        like(me, a);
+        like(other, a, b);
+        recommendations.refresh();
+        Assertions.assertEquals(List.of(b), ids(recommendations.getRecommendations(me, 10)));
+
+        filmService.removeLike(a, other);
+        // до пересчета отдаются старые соседи, но уже без фильмов, которые пользователь лайкнул сам
+        filmService.addLike(b, me);
+        Assertions.assertTrue(recommendations.getRecommendations(me, 10).isEmpty());
+
+        recommendations.refresh();
+        Assertions.assertTrue(recommendations.getRecommendations(other, 10).stream()
+                .map(Film::getId)
+                .toList()
+                .contains(a));
+    }
+
+    @Test
+    void whenFilmIsLikedByTooManyUsersThenItDoesNotMakeNeighbors() {
+        long me = user("me");
+        long hit = film("hit");
+        long rare = film("rare");
+        like(me, hit);
+        for (int i = 0; i < 3; i++) {
+            like(user("fan" + i), hit, rare);
+        }
+
+        recommendations.refresh();
+
+        // у фильма hit больше лайков, чем max-fanout, а других общих лайков нет
+        Assertions.assertTrue(recommendations.getRecommendations(me, 10).isEmpty());
+    }
+
+    @Test
+    void whenLikesChangeRandomlyThenIncrementalNeighborsMatchFullRebuild() {
+        recommendations = new RecommendationService(filmStorage, userStorage, 3, 1000);
+        filmService = new FilmService(filmStorage, userStorage, Validation.buildDefaultValidatorFactory().getValidator(),
+                recommendations, new EventBus(List.of(), new StandardEnvironment()));
+        for (int i = 0; i < 40; i++) {
+            user("user" + i);
+            film("film" + i);
+        }
+        Random random = new Random(7);
+        recommendations.refresh();
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 30; i++) {
+                long filmId = 1 + random.nextInt(40);
+                long userId = 1 + random.nextInt(40);
+                if (random.nextInt(3) == 0) {
+                    filmService.removeLike(filmId, userId);
+                } else {
+                    filmService.addLike(filmId, userId);
+                }
+            }
+            recommendations.refresh();
+
+            RecommendationService rebuilt = new RecommendationService(filmStorage, userStorage, 3, 1000);
+            rebuilt.refresh();
+            for (long userId = 1; userId <= 40; userId++) {
+                Assertions.assertEquals(ids(rebuilt.getRecommendations(userId, 40)),
+                        ids(recommendations.getRecommendations(userId, 40)), "пользователь " + userId);
+            }
+        }
+    }
+
+    @Test
+    void whenUserIsUnknownThenNotFound() {
+        Assertions.assertThrows(NotFoundException.class, () -> recommendations.getRecommendations(42, 10));
+    }
+
+    private void like(long userId, long... filmIds) {
+        for (long filmId : filmIds) {
+            filmService.addLike(filmId, userId);
+        }
+    }
+
+    private long user(String login) {
+        return userStorage.create(new User(null, login + "@mail.ru", login, login, LocalDate.of(1990, 1, 1))).getId();
+    }
+
+    private long film(String name) {
+        return filmStorage.create(new Film(null, name, "desc", LocalDate.of(2020, 5, 11), Duration.ofMinutes(90))).getId();
+    }
+
+    private static List<Long> ids(List<Film> films) {
+        return films.stream().map(Film::getId).toList();
+    }
+}
@@ -0,0 +1,106 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+import ru.yandex.practicum.filmorate.event.EventBus;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class UserServiceTest {
+    private InMemoryUserStorage userStorage;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userStorage = new InMemoryUserStorage();
+        userService = new UserService(userStorage, Validation.buildDefaultValidatorFactory().getValidator(),
+                new EventBus(List.of(), new StandardEnvironment()));
+    }
+
+    @Test
+    void whenFriendIsAddedThenFriendshipIsMutual() {
+        long tom = create("tom");
+        long jerry = create("jerry");
+
+        userService.addFriend(tom, jerry);
+
+        Assertions.assertEquals(List.of(jerry), ids(userService.getFriends(tom)));
+        Assertions.assertEquals(List.of(tom), ids(userService.getFriends(jerry)));
+    }
+
+    @Test
+    void whenFriendIsRemovedThenBothSidesAreUpdated() {
+        long tom = create("tom");
+        long jerry = create("jerry");
+        userService.addFriend(tom, jerry);
+
+        userService.removeFriend(jerry, tom);
+
+        Assertions.assertTrue(userService.getFriends(tom).isEmpty());
+        Assertions.assertTrue(userService.getFriends(jerry).isEmpty());
+    }
+
+    @Test
+    void commonFriendsAreReturnedInIdOrder() {
+        long tom = create("tom");
+        long jerry = create("jerry");
+        long spike = create("spike");
+        long tyke = create("tyke");
+        long butch = create("butch");
+        userService.addFriend(tom, butch);
+        userService.addFriend(tom, spike);
+        userService.addFriend(tom, tyke);
+        userService.addFriend(jerry, tyke);
+        userService.addFriend(jerry, butch);
+
+        Assertions.assertEquals(List.of(tyke, butch), ids(userService.getCommonFriends(tom, jerry)));
+        Assertions.assertEquals(List.of(tom, jerry), ids(userService.getCommonFriends(tyke, butch)));
+        Assertions.assertTrue(userService.getCommonFriends(spike, jerry).isEmpty());
+        // с самим собой общие друзья - все друзья пользователя
+        Assertions.assertEquals(List.of(spike, tyke, butch), ids(userService.getCommonFriends(tom, tom)));
+        Assertions.assertThrows(NotFoundException.class, () -> userService.getCommonFriends(999, 999));
+    }
+
+    @Test
+    void whenUserIsUnknownOrSameThenFriendshipIsRejected() {
+        long tom = create("tom");
+
+        Assertions.assertThrows(NotFoundException.class, () -> userService.addFriend(tom, 999));
+        Assertions.assertThrows(NotFoundException.class, () -> userService.getFriends(999));
+        Assertions.assertThrows(ValidationException.class, () -> userService.addFriend(tom, tom));
+    }
+
+    @Test
+    void whenBatchRepeatsTakenEmailOrLoginThenOnlyThoseItemsConflict() {
+        create("tom");
+        List<User> batch = List.of(
+                new User(null, "jerry@cat.ru", "jerry", null, LocalDate.of(1980, 5, 11)),
+                new User(null, "TOM@cat.ru", "thomas", null, LocalDate.of(1980, 5, 11)),
+                new User(null, "other@cat.ru", "Jerry", null, LocalDate.of(1980, 5, 11)));
+
+        BatchResult result = userService.createAll(batch);
+
+        Assertions.assertEquals(BatchItemResult.Status.CREATED, result.getItems().get(0).getStatus());
+        Assertions.assertEquals(BatchItemResult.Status.CONFLICT, result.getItems().get(1).getStatus());
+        Assertions.assertEquals(BatchItemResult.Status.CONFLICT, result.getItems().get(2).getStatus());
+        Assertions.assertEquals(2, userStorage.size());
+    }
+
+    private long create(String login) {
+        return userStorage.create(new User(null, login + "@cat.ru", login, login, LocalDate.of(1980, 5, 11))).getId();
+    }
+
+    private static List<Long> ids(List<User> users) {
+        return users.stream().map(User::getId).toList();
+    }
+}
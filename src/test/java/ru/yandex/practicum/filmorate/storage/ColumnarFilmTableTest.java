@@ -0,0 +1,143 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.ColumnarFilmTable;
+import ru.yandex.practicum.filmorate.storage.film.FilmQuery;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.journal.NoopJournal;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ColumnarFilmTableTest {
+
+    @Test
+    void whenFilmIsStoredThenViewHasSameFields() {
+        ColumnarFilmTable table = new ColumnarFilmTable();
+        Film film = new Film(7L, "Сталкер", "Зона", LocalDate.of(1979, 5, 25), Duration.ofSeconds(9780, 500), 3L);
+
+        Assertions.assertNull(table.put(film));
+
+        Film stored = table.get(7);
+        Assertions.assertEquals("Сталкер", stored.getName());
+        Assertions.assertEquals("Зона", stored.getDescription());
+        Assertions.assertEquals(LocalDate.of(1979, 5, 25), stored.getReleaseDate());
+        Assertions.assertEquals(Duration.ofSeconds(9780, 500), stored.getDuration());
+        Assertions.assertEquals(3L, stored.getVersion());
+        Assertions.assertNull(table.get(6));
+        Assertions.assertNull(table.get(100_000));
+    }
+
+    @Test
+    void whenFilmIsReplacedThenPreviousRecordIsReturned() {
+        ColumnarFilmTable table = new ColumnarFilmTable();
+        table.put(new Film(1L, "old", null, null, null, 1L));
+
+        Film previous = table.put(new Film(1L, "new", "desc", LocalDate.of(2000, 1, 1), Duration.ofMinutes(90), 2L));
+
+        Assertions.assertEquals("old", previous.getName());
+        Assertions.assertNull(previous.getDescription());
+        Assertions.assertNull(previous.getReleaseDate());
+        Assertions.assertNull(previous.getDuration());
+        Assertions.assertEquals(2L, table.version(1));
+        Assertions.assertEquals("new", table.get(1).getName());
+    }
+
+    @Test
+    void whenIdsHaveGapsThenTraversalSkipsThemInIdOrder() {
+        ColumnarFilmTable table = new ColumnarFilmTable();
+        for (long id : new long[]{100_000, 3, 1, 40_000}) {
+            table.put(new Film(id, "film " + id, "desc", LocalDate.of(2000, 1, 1), Duration.ofMinutes(90), id));
+        }
+
+        Assertions.assertEquals(List.of(1L, 3L, 40_000L, 100_000L), table.after(0).stream().map(Film::getId).toList());
+        Assertions.assertEquals(List.of(40_000L, 100_000L), table.after(3).stream().map(Film::getId).toList());
+        Assertions.assertEquals(4, table.after(0).size());
+    }
+
+    @Test
+    void whenStringsRepeatThenDictionaryKeepsOneCopy() {
+        ColumnarFilmTable table = new ColumnarFilmTable();
+        for (long id = 1; id <= 1000; id++) {
+            table.put(new Film(id, "film " + id % 10, "одно описание", LocalDate.of(2000, 1, 1), Duration.ofMinutes(90), id));
+        }
+
+        Assertions.assertEquals(11, table.strings().size());
+        Assertions.assertEquals("film 7", table.get(997).getName());
+    }
+
+    @Test
+    void whenFilmIsRewrittenConcurrentlyThenReaderNeverSeesTornRecord() throws Exception {
+        ColumnarFilmTable table = new ColumnarFilmTable();
+        table.put(film(1, 0, 1));
+        AtomicBoolean done = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i <= 200_000; i++) {
+                table.put(film(1, i, i + 1));
+            }
+            done.set(true);
+        });
+        writer.start();
+        while (!done.get()) {
+            Film film = table.get(1);
+            // все поля записи из одного обновления
+            Assertions.assertEquals(film.getName(), film.getDescription());
+            Assertions.assertEquals(Long.parseLong(film.getName()), film.getDuration().toMinutes());
+            Assertions.assertEquals(Long.parseLong(film.getName()) + 1, film.getVersion());
+        }
+        writer.join();
+    }
+
+    @Test
+    void whenStorageUsesColumnarTableThenSearchAndChangesWork() {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage(new NoopJournal(), new ColumnarFilmTable());
+        Film first = storage.create(new Film(null, "Солярис", "океан", LocalDate.of(1972, 3, 20), Duration.ofMinutes(167)));
+        storage.create(new Film(null, "Зеркало", "память", LocalDate.of(1975, 3, 7), Duration.ofMinutes(108)));
+        long synced = storage.version();
+        Film update = new Film(first.getId(), "Солярис", "планета океан", first.getReleaseDate(), first.getDuration());
+        storage.update(update);
+
+        Assertions.assertEquals(List.of(first.getId()), storage.findChangedSince(synced, storage.version()).stream()
+                .map(Film::getId)
+                .toList());
+        Assertions.assertEquals("планета океан", storage.findById(first.getId()).orElseThrow().getDescription());
+        Assertions.assertEquals(1, storage.search(new FilmQuery("планета", null, null, null, null, 0, 10)).size());
+        Assertions.assertEquals(2, storage.findAll().size());
+    }
+
+    @Test
+    void whenLargeTableIsPagedThenOnlyPageRowsAreDecoded() {
+        AtomicInteger decoded = new AtomicInteger();
+        ColumnarFilmTable table = new ColumnarFilmTable() {
+            @Override
+            public Film get(long id) {
+                decoded.incrementAndGet();
+                return super.get(id);
+            }
+        };
+        InMemoryFilmStorage storage = new InMemoryFilmStorage(new NoopJournal(), table);
+        for (int i = 0; i < 50_000; i++) {
+            storage.create(new Film(null, "film", "desc", LocalDate.of(2000, 1, 1), Duration.ofMinutes(90)));
+        }
+        decoded.set(0);
+
+        Assertions.assertEquals(List.of(25_001L, 25_002L, 25_003L), storage.findPage(25_000, 3).stream()
+                .map(Film::getId)
+                .toList());
+        Assertions.assertEquals(10, storage.findPage(0, 10).size());
+        Assertions.assertEquals(13, decoded.get());
+        // размер считается по столбцу версий
+        Assertions.assertEquals(50_000, storage.findAll().size());
+        Assertions.assertEquals(49_990, table.after(10).size());
+        Assertions.assertEquals(13, decoded.get());
+    }
+
+    private static Film film(long id, int i, long version) {
+        return new Film(id, String.valueOf(i), String.valueOf(i), LocalDate.of(2000, 1, 1), Duration.ofMinutes(i), version);
+    }
+}
@@ -0,0 +1,128 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmQuery;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class FilmSearchTest {
+    private final InMemoryFilmStorage storage = new InMemoryFilmStorage();
+
+    @Test
+    void whenSearchingByTextThenAllWordsMustMatchIgnoringCaseAndYo() {
+        long trees = storage.create(film("Ёлки", "Новогодняя комедия", 2010, 90)).getId();
+        long trees2 = storage.create(film("Ёлки 2", "Снова новогодняя комедия", 2011, 95)).getId();
+        storage.create(film("Ирония судьбы", "Новогодняя классика", 1976, 184));
+
+        Assertions.assertEquals(List.of(trees, trees2), ids(storage.search(text("елки"))));
+        Assertions.assertEquals(List.of(trees2), ids(storage.search(text("ЁЛКИ, 2!"))));
+        Assertions.assertEquals(List.of(trees, trees2), ids(storage.search(text("комедия новогодняя"))));
+        Assertions.assertTrue(storage.search(text("елки классика")).isEmpty());
+    }
+
+    @Test
+    void whenFilmIsUpdatedThenOldWordsAndValuesAreNoLongerFound() {
+        Film created = storage.create(film("Старое название", "описание", 2000, 90));
+        Film update = film("Новое название", "описание", 2020, 120);
+        update.setId(created.getId());
+        storage.update(update);
+
+        Assertions.assertTrue(storage.search(text("старое")).isEmpty());
+        Assertions.assertEquals(List.of(created.getId()), ids(storage.search(text("новое"))));
+        Assertions.assertTrue(storage.search(query(null, LocalDate.of(2000, 1, 1), LocalDate.of(2000, 12, 31),
+                null, null)).isEmpty());
+        Assertions.assertEquals(1, storage.search(query(null, null, null, 100L * 60, 130L * 60)).size());
+    }
+
+    @Test
+    void whenSearchingByRangesThenBoundsAreInclusiveAndCombinedWithText() {
+        long old = storage.create(film("Фильм", "черно-белый", 1950, 80)).getId();
+        long middle = storage.create(film("Фильм", "цветной", 1990, 120)).getId();
+        long recent = storage.create(film("Фильм", "цветной", 2020, 150)).getId();
+
+        Assertions.assertEquals(List.of(old, middle), ids(storage.search(
+                query(null, LocalDate.of(1950, 1, 1), LocalDate.of(1990, 1, 1), null, null))));
+        Assertions.assertEquals(List.of(middle, recent), ids(storage.search(query(null, null, null, 120L * 60, null))));
+        Assertions.assertEquals(List.of(middle), ids(storage.search(
+                query("цветной", null, LocalDate.of(2000, 1, 1), null, null))));
+        Assertions.assertEquals(List.of(recent), ids(storage.search(
+                query(null, LocalDate.of(1960, 1, 1), null, 130L * 60, null))));
+    }
+
+    @Test
+    void whenResultsSpanManyChunksThenPagesFollowIdOrderWithoutGaps() {
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            Film created = storage.create(film("общий " + (i % 3 == 0 ? "редкий" : "частый"), "описание", 2000, 90));
+            if (i % 3 == 0) {
+                expected.add(created.getId());
+            }
+        }
+
+        List<Long> found = new ArrayList<>();
+        long afterId = 0;
+        while (true) {
+            List<Film> page = storage.search(new FilmQuery("общий редкий", null, null, null, null, afterId, 500));
+            if (page.isEmpty()) {
+                break;
+            }
+            found.addAll(ids(page));
+            afterId = page.get(page.size() - 1).getId();
+        }
+        Assertions.assertEquals(expected, found);
+    }
+
+    @Test
+    void whenRangeIsWideOrNarrowThenPagesFollowIdOrderWithoutGaps() {
+        List<Long> wide = new ArrayList<>();
+        List<Long> narrow = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            int minutes = i % 50 == 0 ? 200 : 90 + i % 10;
+            long id = storage.create(film("фильм", "описание", 2000, minutes)).getId();
+            (minutes == 200 ? narrow : wide).add(id);
+        }
+
+        // широкий диапазон обходится по id с фильтром, узкий - через индекс продолжительности
+        Assertions.assertEquals(wide, pages(90L * 60, 99L * 60, 10));
+        Assertions.assertEquals(narrow, pages(200L * 60, null, 10));
+    }
+
+    private List<Long> pages(Long minSeconds, Long maxSeconds, int limit) {
+        List<Long> found = new ArrayList<>();
+        long afterId = 0;
+        while (true) {
+            List<Film> page = storage.search(new FilmQuery(null, null, null,
+                    minSeconds == null ? null : Duration.ofSeconds(minSeconds),
+                    maxSeconds == null ? null : Duration.ofSeconds(maxSeconds), afterId, limit));
+            if (page.isEmpty()) {
+                return found;
+            }
+            found.addAll(ids(page));
+            afterId = page.get(page.size() - 1).getId();
+        }
+    }
+
+    private static FilmQuery text(String text) {
+        return query(text, null, null, null, null);
+    }
+
+    private static FilmQuery query(String text, LocalDate from, LocalDate to, Long minSeconds, Long maxSeconds) {
+        return new FilmQuery(text, from, to,
+                minSeconds == null ? null : Duration.ofSeconds(minSeconds),
+                maxSeconds == null ? null : Duration.ofSeconds(maxSeconds), 0, 100);
+    }
+
+    private static Film film(String name, String description, int year, int minutes) {
+        return new Film(null, name, description, LocalDate.of(year, 1, 1), Duration.ofMinutes(minutes));
+    }
+
+    private static List<Long> ids(List<Film> films) {
+        return films.stream().map(Film::getId).toList();
+    }
+}
@@ -0,0 +1,202 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class InMemoryFilmStorageTest {
+    private static final int FILMS_PER_THREAD = 20_000;
+
+    @Test
+    void whenFilmsAreCreatedConcurrentlyThenNoWritesAreLostAndIdsAreUnique() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+        runConcurrently(threads, () -> {
+            for (int i = 0; i < FILMS_PER_THREAD; i++) {
+                storage.create(film("film " + i));
+            }
+        });
+
+        Assertions.assertEquals(threads * FILMS_PER_THREAD, storage.size());
+        Set<Long> ids = new HashSet<>();
+        for (Film film : storage.findAll()) {
+            Assertions.assertTrue(ids.add(film.getId()), "id " + film.getId() + " выдан дважды");
+        }
+    }
+
+    @Test
+    void whenFilmIsUpdatedConcurrentlyThenStoredRecordIsNeverTorn() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        long id = storage.create(film("0")).getId();
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+        runConcurrently(threads, () -> {
+            for (int i = 1; i <= FILMS_PER_THREAD; i++) {
+                Film update = film(String.valueOf(i));
+                update.setId(id);
+                update.setDescription(String.valueOf(i));
+                storage.update(update);
+                // читатель всегда видит запись целиком: имя и описание из одного обновления
+                Film current = storage.findById(id).orElseThrow();
+                Assertions.assertEquals(current.getName(), current.getDescription());
+            }
+        });
+
+        Assertions.assertEquals(1, storage.size());
+    }
+
+    @Test
+    void whenCreatedFilmIsChangedByCallerThenStorageIsNotAffected() {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        Film film = film("film");
+        Film created = storage.create(film);
+        film.setName("changed");
+        film.setDescription("changed");
+
+        Film stored = storage.findById(created.getId()).orElseThrow();
+        Assertions.assertEquals("film", stored.getName());
+        Assertions.assertEquals("desc", stored.getDescription());
+    }
+
+    @Test
+    void whenPageIsRequestedThenFilmsAreReturnedInIdOrderAfterCursor() {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        for (int i = 0; i < 10; i++) {
+            storage.create(film("film " + i));
+        }
+
+        List<Film> first = storage.findPage(0, 4);
+        List<Film> second = storage.findPage(first.get(first.size() - 1).getId(), 4);
+        List<Film> last = storage.findPage(second.get(second.size() - 1).getId(), 4);
+
+        Assertions.assertEquals(List.of(1L, 2L, 3L, 4L), first.stream().map(Film::getId).toList());
+        Assertions.assertEquals(List.of(5L, 6L, 7L, 8L), second.stream().map(Film::getId).toList());
+        Assertions.assertEquals(List.of(9L, 10L), last.stream().map(Film::getId).toList());
+        Assertions.assertTrue(storage.findPage(10, 4).isEmpty());
+    }
+
+    @Test
+    void whenLikesChangeThenPopularFilmsFollowLikeCountThenId() {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        long first = storage.create(film("first")).getId();
+        long second = storage.create(film("second")).getId();
+        long third = storage.create(film("third")).getId();
+
+        Assertions.assertTrue(storage.addLike(third, 1));
+        Assertions.assertTrue(storage.addLike(third, 2));
+        Assertions.assertFalse(storage.addLike(third, 2));
+        Assertions.assertTrue(storage.addLike(second, 1));
+        Assertions.assertEquals(List.of(third, second, first), ids(storage.findPopular(10)));
+        Assertions.assertEquals(2, storage.likeCount(third));
+
+        Assertions.assertTrue(storage.removeLike(third, 1));
+        Assertions.assertTrue(storage.removeLike(third, 2));
+        Assertions.assertFalse(storage.removeLike(third, 2));
+        Assertions.assertEquals(List.of(second, first), ids(storage.findPopular(2)));
+        // огромный count не выделяет памяти больше, чем фильмов в хранилище
+        Assertions.assertEquals(3, storage.findPopular(Integer.MAX_VALUE).size());
+        Assertions.assertEquals(0, storage.getLikes(third).length);
+        Assertions.assertEquals(0, storage.likeCount(third));
+    }
+
+    @Test
+    void whenFilmsAreLikedConcurrentlyThenRatingKeepsEveryFilmOnce() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        for (int i = 0; i < 100; i++) {
+            storage.create(film("film " + i));
+        }
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+        runConcurrently(threads, () -> {
+            for (long userId = 1; userId <= 1000; userId++) {
+                storage.addLike(1 + userId % 100, userId);
+                storage.findPopular(10);
+            }
+        });
+
+        List<Film> popular = storage.findPopular(1000);
+        Assertions.assertEquals(100, popular.size());
+        Assertions.assertEquals(100, popular.stream().map(Film::getId).distinct().count());
+        Assertions.assertEquals(10, storage.getLikes(popular.get(0).getId()).length);
+    }
+
+    @Test
+    void whenFilmIsUpdatedThenItAppearsInChangesOnceWithNewVersion() {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        Film first = storage.create(film("first"));
+        Film second = storage.create(film("second"));
+        long synced = storage.version();
+        Film update = film("first updated");
+        update.setId(first.getId());
+        update.setVersion(100L);
+
+        Film updated = storage.update(update).orElseThrow();
+
+        Assertions.assertEquals(2L, synced);
+        Assertions.assertEquals(3L, updated.getVersion());
+        Assertions.assertEquals(List.of(first.getId()), ids(storage.findChangedSince(synced, storage.version())));
+        Assertions.assertEquals(List.of(second.getId(), first.getId()), ids(storage.findChangedSince(0, storage.version())));
+        Assertions.assertTrue(storage.findChangedSince(storage.version(), storage.version()).isEmpty());
+    }
+
+    @Test
+    void whenFilmsAreCreatedConcurrentlyThenEveryChangeUpToStableVersionIsVisible() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+        runConcurrently(threads, () -> {
+            for (int i = 0; i < 2_000; i++) {
+                storage.create(film("film " + i));
+                if (i % 50 == 0) {
+                    // только создания: каждая версия до стабильной - отдельный уже видимый фильм
+                    long version = storage.version();
+                    Assertions.assertEquals(version, storage.findChangedSince(0, version).size());
+                }
+            }
+        });
+
+        Assertions.assertEquals(threads * 2_000L, storage.version());
+    }
+
+    private static Film film(String name) {
+        return new Film(null, name, "desc", LocalDate.of(2020, 5, 11), Duration.ofMinutes(120));
+    }
+
+    private static List<Long> ids(List<Film> films) {
+        return films.stream().map(Film::getId).toList();
+    }
+
+    private static void runConcurrently(int threads, Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
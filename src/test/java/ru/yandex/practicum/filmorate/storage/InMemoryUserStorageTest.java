@@ -0,0 +1,127 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class InMemoryUserStorageTest {
+    private final InMemoryUserStorage storage = new InMemoryUserStorage();
+
+    @Test
+    void whenEmailOrLoginIsTakenIgnoringCaseThenCreateIsRejected() {
+        storage.create(user("Tom@Cat.ru", "Tom"));
+
+        Assertions.assertThrows(DuplicatedDataException.class, () -> storage.create(user(" tom@cat.RU ", "jerry")));
+        Assertions.assertThrows(DuplicatedDataException.class, () -> storage.create(user("jerry@cat.ru", "TOM")));
+        Assertions.assertEquals(1, storage.size());
+        // отказ по логину не должен оставить занятой почту
+        Assertions.assertTrue(storage.findByEmail("jerry@cat.ru").isEmpty());
+        Assertions.assertDoesNotThrow(() -> storage.create(user("jerry@cat.ru", "jerry")));
+    }
+
+    @Test
+    void whenUserChangesEmailThenOldOneIsReleasedAndLookupsFollow() {
+        User tom = storage.create(user("tom@cat.ru", "tom"));
+        User update = user("thomas@cat.ru", "tom");
+        update.setId(tom.getId());
+        storage.update(update);
+
+        Assertions.assertTrue(storage.findByEmail("tom@cat.ru").isEmpty());
+        Assertions.assertEquals(tom.getId(), storage.findByEmail("THOMAS@cat.ru").orElseThrow().getId());
+        Assertions.assertEquals(tom.getId(), storage.findByLogin("Tom").orElseThrow().getId());
+        Assertions.assertDoesNotThrow(() -> storage.create(user("tom@cat.ru", "another")));
+    }
+
+    @Test
+    void whenUpdateTakesSomeoneElsesLoginThenItIsRejectedAndNothingChanges() {
+        User tom = storage.create(user("tom@cat.ru", "tom"));
+        storage.create(user("jerry@cat.ru", "jerry"));
+        User update = user("new@cat.ru", "jerry");
+        update.setId(tom.getId());
+
+        Assertions.assertThrows(DuplicatedDataException.class, () -> storage.update(update));
+        Assertions.assertEquals("tom@cat.ru", storage.findById(tom.getId()).orElseThrow().getEmail());
+        Assertions.assertTrue(storage.findByEmail("new@cat.ru").isEmpty());
+    }
+
+    @Test
+    void whenSameEmailIsRegisteredConcurrentlyThenExactlyOneSucceeds() throws Exception {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String login = "login" + i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        storage.create(user("same@cat.ru", login));
+                        return true;
+                    } catch (DuplicatedDataException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int created = 0;
+            for (Future<Boolean> result : results) {
+                created += result.get() ? 1 : 0;
+            }
+            Assertions.assertEquals(1, created);
+            Assertions.assertEquals(1, storage.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void whenSameFriendshipIsAddedAndRemovedConcurrentlyThenBothSidesAgree() throws Exception {
+        long tom = storage.create(user("tom@cat.ru", "tom")).getId();
+        long jerry = storage.create(user("jerry@cat.ru", "jerry")).getId();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                boolean adding = t % 2 == 0;
+                // половина потоков называет пару в обратном порядке: блокировки берутся в одном порядке
+                long first = t < 2 ? tom : jerry;
+                long second = t < 2 ? jerry : tom;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 10_000; i++) {
+                        if (adding) {
+                            storage.addFriendship(first, second);
+                        } else {
+                            storage.removeFriendship(first, second);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Assertions.assertEquals(storage.getFriendIds(tom).contains(jerry), storage.getFriendIds(jerry).contains(tom));
+    }
+
+    private static User user(String email, String login) {
+        return new User(null, email, login, login, LocalDate.of(1980, 5, 11));
+    }
+}
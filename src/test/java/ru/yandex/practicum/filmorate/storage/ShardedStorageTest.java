@@ -0,0 +1,213 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmQuery;
+import ru.yandex.practicum.filmorate.storage.shard.ConsistentHashRing;
+import ru.yandex.practicum.filmorate.storage.shard.ShardedFilmStorage;
+import ru.yandex.practicum.filmorate.storage.shard.ShardedUserStorage;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class ShardedStorageTest {
+    private final ShardedFilmStorage films = new ShardedFilmStorage(4, 1);
+    private final ShardedUserStorage users = new ShardedUserStorage(4, 1);
+
+    @Test
+    void whenFilmsAreCreatedThenTheySpreadOverShardsAndListsAreMergedById() {
+        List<Film> created = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            created.add(films.create(film("Фильм " + i)));
+        }
+
+        Assertions.assertEquals(200, films.size());
+        Assertions.assertTrue(films.shardSizes().stream().allMatch(size -> size > 0), "" + films.shardSizes());
+        List<Long> ids = films.findAll().stream().map(Film::getId).toList();
+        Assertions.assertEquals(created.stream().map(Film::getId).toList(), ids, "id растут в порядке создания");
+        Assertions.assertEquals(ids.subList(50, 60), films.findPage(ids.get(49), 10).stream()
+                .map(Film::getId)
+                .toList());
+        Assertions.assertEquals(created.get(7), films.findById(created.get(7).getId()).orElseThrow());
+    }
+
+    @Test
+    void whenBatchIsCreatedAndUpdatedThenResultsKeepBatchOrder() {
+        List<Film> batch = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            batch.add(film("Пакет " + i));
+        }
+        List<Film> created = films.createAll(batch);
+        List<Film> update = new ArrayList<>();
+        for (Film film : created) {
+            Film changed = film("Новое " + film.getName());
+            changed.setId(film.getId());
+            update.add(changed);
+        }
+        update.add(film("Без id"));
+
+        for (int i = 0; i < 50; i++) {
+            Assertions.assertEquals("Пакет " + i, created.get(i).getName());
+        }
+        var updated = films.updateAll(update);
+        Assertions.assertEquals("Новое Пакет 3", updated.get(3).orElseThrow().getName());
+        Assertions.assertTrue(updated.get(50).isEmpty());
+        Assertions.assertEquals(50, films.findChangedSince(created.get(49).getVersion(), films.version()).size());
+        Assertions.assertEquals(50, films.findChangedSince(films.version() + 100, films.version()).size());
+        Assertions.assertTrue(films.findChangedSince(films.version(), films.version()).isEmpty());
+    }
+
+    @Test
+    void whenSearchingAndRankingThenShardResultsAreMerged() {
+        List<Film> created = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            created.add(films.create(film((i % 2 == 0 ? "Космос " : "Море ") + i)));
+        }
+        for (int i = 0; i < 5; i++) {
+            for (int user = 0; user <= i; user++) {
+                films.addLike(created.get(i * 7).getId(), user);
+            }
+        }
+
+        List<Film> found = films.search(new FilmQuery("космос", null, null, null, null, 0, 15));
+        Assertions.assertEquals(15, found.size());
+        Assertions.assertEquals(created.stream().filter(f -> f.getName().startsWith("Космос")).limit(15).toList(),
+                found);
+        Assertions.assertEquals(List.of(created.get(28), created.get(21), created.get(14), created.get(7)),
+                films.findPopular(4));
+        Assertions.assertEquals(5, films.getLikedFilms(0).size());
+    }
+
+    @Test
+    void whenShardIsAddedThenOnlyItsShareMovesAndEverythingStaysFindable() {
+        List<Film> created = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            created.add(films.create(film("Фильм " + i)));
+        }
+        films.addLike(created.get(0).getId(), 42);
+        List<Integer> before = films.shardSizes();
+
+        int moved = films.addShard();
+
+        List<Integer> after = films.shardSizes();
+        Assertions.assertEquals(5, after.size());
+        Assertions.assertEquals(moved, after.get(4));
+        // к новому шарду переходит примерно пятая часть, остальное остается на месте
+        Assertions.assertTrue(moved > 100 && moved < 320, "перенесено " + moved);
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertTrue(after.get(i) <= before.get(i));
+        }
+        Assertions.assertEquals(1000, films.size());
+        for (Film film : created) {
+            Assertions.assertEquals(film, films.findById(film.getId()).orElseThrow());
+        }
+        Assertions.assertArrayEquals(new long[]{42}, films.getLikes(created.get(0).getId()));
+        Assertions.assertEquals(created.get(0).getId(), films.getLikedFilms(42).get(0));
+        Assertions.assertEquals(created, new ArrayList<>(films.findAll()));
+    }
+
+    @Test
+    void whenEmailIsTakenInAnotherShardThenCreateIsRejected() {
+        List<User> created = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            created.add(users.create(user("user" + i + "@mail.ru", "user" + i)));
+        }
+
+        for (int i = 0; i < 20; i++) {
+            int n = i;
+            Assertions.assertThrows(DuplicatedDataException.class,
+                    () -> users.create(user("USER" + n + "@mail.ru", "other" + n)));
+        }
+        var results = users.createAll(List.of(user("user3@mail.ru", "fresh"), user("fresh@mail.ru", "fresh")));
+        Assertions.assertNotNull(results.get(0).conflict());
+        Assertions.assertNotNull(results.get(1).stored());
+        Assertions.assertEquals(21, users.size());
+        Assertions.assertEquals(created.get(5), users.findByLogin("USER5").orElseThrow());
+    }
+
+    @Test
+    void whenUserShardIsAddedThenFriendsAndKeysMoveWithUsers() {
+        List<User> created = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            created.add(users.create(user("user" + i + "@mail.ru", "user" + i)));
+        }
+        for (int i = 1; i < 500; i++) {
+            users.addFriendship(created.get(i).getId(), created.get(0).getId());
+        }
+
+        int moved = users.addShard();
+
+        Assertions.assertTrue(moved > 0);
+        Map<Long, User> byId = users.findAll().stream().collect(Collectors.toMap(User::getId, Function.identity()));
+        Assertions.assertEquals(500, byId.size());
+        for (int i = 1; i < 500; i++) {
+            User user = created.get(i);
+            Assertions.assertEquals(user, users.findByEmail(user.getEmail()).orElseThrow());
+            Assertions.assertTrue(users.getFriendIds(user.getId()).contains(created.get(0).getId()));
+        }
+        Assertions.assertEquals(499, users.getFriendIds(created.get(0).getId()).size());
+        Assertions.assertThrows(DuplicatedDataException.class, () -> users.create(user("user9@mail.ru", "x")));
+    }
+
+    @Test
+    void whenSnowflakeIdsAreIssuedThenTheyAreUniqueIncreasingAndCarryNode() {
+        long[] now = {SnowflakeIdGenerator.EPOCH + 1000};
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(513, () -> now[0]);
+
+        long previous = 0;
+        // больше 4096 id за одну миллисекунду: генератор занимает следующие
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.next();
+            Assertions.assertTrue(id > previous);
+            Assertions.assertEquals(513, SnowflakeIdGenerator.nodeOf(id));
+            previous = id;
+        }
+        long[] batch = generator.next(100);
+        for (long id : batch) {
+            Assertions.assertTrue(id > previous);
+            previous = id;
+        }
+        // часы ушли назад: id все равно растут
+        now[0] -= 500;
+        Assertions.assertTrue(generator.next() > previous);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(1024));
+    }
+
+    @Test
+    void whenShardIsAddedToRingThenAboutOneShareOfIdsMoves() {
+        ConsistentHashRing ring = new ConsistentHashRing(4, 128);
+        ConsistentHashRing grown = ring.withShard();
+        int[] counts = new int[4];
+        int moved = 0;
+        for (long id = 1; id <= 100_000; id++) {
+            int owner = ring.shardFor(id);
+            counts[owner]++;
+            int next = grown.shardFor(id);
+            if (next != owner) {
+                Assertions.assertEquals(4, next, "id переезжают только в новый шард");
+                moved++;
+            }
+        }
+
+        for (int count : counts) {
+            Assertions.assertTrue(count > 20_000 && count < 30_000, "шард с " + count + " id");
+        }
+        Assertions.assertTrue(moved > 15_000 && moved < 25_000, "перенесено " + moved);
+    }
+
+    private static Film film(String name) {
+        return new Film(null, name, "desc", LocalDate.of(2020, 5, 11), Duration.ofMinutes(90));
+    }
+
+    private static User user(String email, String login) {
+        return new User(null, email, login, login, LocalDate.of(1990, 1, 1));
+    }
+}
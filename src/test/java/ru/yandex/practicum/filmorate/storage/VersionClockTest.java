@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class VersionClockTest {
+
+    @Test
+    void whenEarlierWriteIsStillRunningThenStableVersionWaitsForIt() {
+        VersionClock clock = new VersionClock();
+        long first = clock.beginWrite();
+        long second = clock.beginWrite();
+
+        clock.endWrite(second);
+        Assertions.assertEquals(0, clock.stable());
+
+        clock.endWrite(first);
+        Assertions.assertEquals(second, clock.stable());
+    }
+
+    @Test
+    void whenManyWritersFinishInAnyOrderThenStableNeverPassesUnfinishedWrite() throws InterruptedException {
+        VersionClock clock = new VersionClock();
+        int writers = 4;
+        int perWriter = 50_000;
+        AtomicBoolean violated = new AtomicBoolean();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < writers; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    long version = clock.beginWrite();
+                    // версия еще не завершена, значит знак до нее дойти не мог
+                    if (clock.stable() >= version) {
+                        violated.set(true);
+                    }
+                    clock.endWrite(version);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertFalse(violated.get());
+        Assertions.assertEquals((long) writers * perWriter, clock.stable());
+    }
+
+    @Test
+    void whenVersionsAreRestoredThenNewWritesContinueAfterThem() {
+        VersionClock clock = new VersionClock();
+        clock.advanceTo(10_000);
+
+        long version = clock.beginWrite();
+        clock.endWrite(version);
+
+        Assertions.assertEquals(10_001, version);
+        Assertions.assertEquals(10_001, clock.stable());
+        Assertions.assertEquals(10_002, clock.next());
+        Assertions.assertEquals(10_002, clock.stable());
+    }
+}
@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.wire;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+public class WireFormatTest {
+    private final WireMappers mappers = new WireMappers(Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS,
+                    SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS));
+
+    @Test
+    void whenAcceptIsMissingOrWildcardThenJson() {
+        Assertions.assertEquals(WireFormat.JSON, WireFormat.negotiate(null));
+        Assertions.assertEquals(WireFormat.JSON, WireFormat.negotiate("*/*"));
+        Assertions.assertEquals(WireFormat.JSON, WireFormat.negotiate("text/html"));
+        Assertions.assertEquals(WireFormat.JSON, WireFormat.negotiate("не тип"));
+    }
+
+    @Test
+    void whenBinaryFormatIsPreferredThenItIsChosen() {
+        Assertions.assertEquals(WireFormat.SMILE, WireFormat.negotiate("application/x-jackson-smile"));
+        Assertions.assertEquals(WireFormat.CBOR, WireFormat.negotiate("application/cbor, */*"));
+        Assertions.assertEquals(WireFormat.CBOR,
+                WireFormat.negotiate("application/json;q=0.5, application/cbor"));
+        Assertions.assertEquals(WireFormat.JSON,
+                WireFormat.negotiate("application/cbor;q=0.1, application/json"));
+    }
+
+    @Test
+    void whenFilmIsEncodedInAnyFormatThenItReadsBackEqual() throws IOException {
+        Film film = new Film(7L, "Фильм", "Описание", LocalDate.of(1999, 3, 31), Duration.ofMinutes(136), 3L);
+        for (WireFormat format : WireFormat.values()) {
+            ObjectMapper mapper = mappers.mapper(format);
+            byte[] bytes = mapper.writeValueAsBytes(List.of(film));
+            Film read = mapper.readValue(bytes, Film[].class)[0];
+
+            Assertions.assertEquals(film.getName(), read.getName(), format.name());
+            Assertions.assertEquals(film.getReleaseDate(), read.getReleaseDate(), format.name());
+            Assertions.assertEquals(film.getDuration(), read.getDuration(), format.name());
+            Assertions.assertEquals(film.getId(), read.getId(), format.name());
+        }
+    }
+
+    @Test
+    void whenUserIsEncodedInBinaryFormatThenItIsSmallerThanJson() throws IOException {
+        User user = new User(1L, "user@mail.ru", "login", "Пользователь", LocalDate.of(1990, 1, 1));
+        List<User> users = List.of(user, user, user);
+        int json = mappers.mapper(WireFormat.JSON).writeValueAsBytes(users).length;
+
+        Assertions.assertTrue(mappers.mapper(WireFormat.SMILE).writeValueAsBytes(users).length < json);
+        Assertions.assertTrue(mappers.mapper(WireFormat.CBOR).writeValueAsBytes(users).length < json);
+    }
+}